@@ -1,6 +1,21 @@
 #!/usr/bin/env -S bash -e
 
+# Modules built at the same time, e.g. BUILD_JOBS=4 ./ci/build-all.sh: the Elasticsearch modules are still built one
+# after the other, as each of them starts a node on port 9200
+BUILD_JOBS=${BUILD_JOBS:-1}
+# Test JVMs forked by each module that supports it, e.g. TEST_FORK_COUNT=2, or 1C for one per core: the ORM, Envers
+# and orm-lucene templates give each fork its own H2 database through ${test.fork.suffix}; the Elasticsearch modules
+# ignore it, as their tests share a single node and indexes
+TEST_FORK_COUNT=${TEST_FORK_COUNT:-1}
+# nproc is missing on macOS
+CORES=$( nproc 2> /dev/null || sysctl -n hw.ncpu 2> /dev/null || getconf _NPROCESSORS_ONLN )
+
 MVN_PROJECTS=$( find . -name pom.xml -print -or -path '*/target/*' -prune | sort | xargs -n 1 dirname )
+ELASTICSEARCH_PROJECTS=$( for project in $MVN_PROJECTS; do grep -q elasticsearch-maven-plugin "$project/pom.xml" && echo "$project"; done || true )
+LOCAL_PROJECTS=$( for project in $MVN_PROJECTS; do echo "$ELASTICSEARCH_PROJECTS" | grep -qx "$project" || echo "$project"; done )
+
+LOG_DIR=$( mktemp -d )
+trap 'rm -rf "$LOG_DIR"' EXIT
 
 # first run to download all the Maven dependencies without logging
 for project in $MVN_PROJECTS
@@ -10,9 +25,64 @@ do
     popd
 done
 
-for project in $MVN_PROJECTS
+# Prints a module log at a time, not interleaved with the others: with flock where available, macOS has none, and
+# with a lock directory otherwise, as mkdir is atomic
+print_log() {
+    if command -v flock > /dev/null
+    then
+        flock "$LOG_DIR/.lock" cat "$1"
+    else
+        until mkdir "$LOG_DIR/.lock.d" 2> /dev/null
+        do
+            sleep 0.1
+        done
+        cat "$1"
+        rmdir "$LOG_DIR/.lock.d"
+    fi
+}
+
+# Builds one module, logging to a file when it runs next to others, and records how long it took and its exit status
+build() {
+    local project=$1
+    local log="$LOG_DIR/$( echo "${project#./}" | tr / _ ).log"
+    local start=$( date +%s )
+    local status=0
+    if [ "$BUILD_JOBS" -gt 1 ]
+    then
+        ( cd "$project" && mvn -B clean verify -Dtest.forkCount="$TEST_FORK_COUNT" ) > "$log" 2>&1 || status=$?
+        print_log "$log"
+    else
+        ( cd "$project" && mvn -B clean verify -Dtest.forkCount="$TEST_FORK_COUNT" ) || status=$?
+    fi
+    echo "$project $(( $( date +%s ) - start )) $status" >> "$LOG_DIR/timings"
+    return $status
+}
+export -f build print_log
+export LOG_DIR BUILD_JOBS TEST_FORK_COUNT
+
+START=$( date +%s )
+STATUS=0
+echo "$LOCAL_PROJECTS" | xargs -P "$BUILD_JOBS" -I '{}' bash -c 'build "$1"' _ '{}' || STATUS=1
+for project in $ELASTICSEARCH_PROJECTS
 do
-    pushd "$project"
-    mvn -B clean verify
-    popd
+    build "$project" || STATUS=1
+done
+WALL_CLOCK=$(( $( date +%s ) - START ))
+
+# Not only the exit status of xargs: every module must have recorded its own, and succeeded
+for project in $LOCAL_PROJECTS $ELASTICSEARCH_PROJECTS
+do
+    if ! awk -v project="$project" '$1 == project && $3 == 0 { found = 1 } END { exit !found }' "$LOG_DIR/timings"
+    then
+        echo "$project failed, or did not record its build status"
+        STATUS=1
+    fi
 done
+
+# The sum of the module times is what a serial build would take, give or take the contention between modules
+echo
+echo "Build times (BUILD_JOBS=$BUILD_JOBS, TEST_FORK_COUNT=$TEST_FORK_COUNT, $CORES cores):"
+sort -k 2 -n -r "$LOG_DIR/timings" | awk '{ printf "    %-45s %5d s%s\n", $1, $2, ( $3 == 0 ? "" : "    FAILED" ) }'
+awk -v wall="$WALL_CLOCK" '{ sum += $2 } END { printf "Wall-clock: %d s for %d s of module builds, %.1fx faster than one module at a time\n", wall, sum, sum / ( wall > 0 ? wall : 1 ) }' "$LOG_DIR/timings"
+
+exit $STATUS
@@ -0,0 +1,231 @@
+package org.hibernate.envers.bugs.cache;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * The storage of a single {@link BoundedRegionFactory} region: a least-recently-used map capped by entry count
+ * and, optionally, by the serialized size of its entries, whose entries can expire.  Expired entries are dropped when
+ * they are read and whenever an entry is put, before any live entry is evicted.
+ */
+public class BoundedStorageAccess implements DomainDataStorageAccess {
+
+	private final String regionName;
+
+	private final long maxEntries;
+
+	private final long maxBytes;
+
+	private final long ttlMillis;
+
+	private final LongSupplier clock;
+
+	// In access order, so that iteration starts with the least recently used entry
+	private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>( 16, 0.75f, true );
+
+	// In write order, which is also the expiration order since all the entries live for ttlMillis
+	private final LinkedHashMap<Object, Entry> byExpiration = new LinkedHashMap<>();
+
+	private long bytes;
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+	 * @param maxEntries the maximum number of entries, {@code 0} for no limit
+	 * @param maxBytes the maximum serialized size of the keys and values, {@code 0} for no limit
+	 * @param ttlMillis the time after which an entry expires, {@code 0} to never expire entries
+	 */
+	public BoundedStorageAccess(String regionName, long maxEntries, long maxBytes, long ttlMillis) {
+		this( regionName, maxEntries, maxBytes, ttlMillis, System::currentTimeMillis );
+	}
+
+	/**
+	 * @param clock the current time in milliseconds, against which entries expire
+	 */
+	public BoundedStorageAccess(String regionName, long maxEntries, long maxBytes, long ttlMillis, LongSupplier clock) {
+		this.regionName = regionName;
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+	}
+
+	@Override
+	public synchronized Object getFromCache(Object key, SharedSessionContractImplementor session) {
+		Entry entry = entries.get( key );
+		if ( entry == null ) {
+			return null;
+		}
+		if ( entry.isExpired( clock.getAsLong() ) ) {
+			remove( key );
+			expirations.increment();
+			return null;
+		}
+		return entry.value;
+	}
+
+	@Override
+	public synchronized void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+		long now = clock.getAsLong();
+		long weight = maxBytes > 0 ? weigh( key, value ) : 0;
+		long expiresAt = ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE;
+
+		remove( key );
+		Entry entry = new Entry( value, weight, expiresAt );
+		entries.put( key, entry );
+		if ( ttlMillis > 0 ) {
+			byExpiration.put( key, entry );
+		}
+		bytes += weight;
+
+		removeExpired( now );
+
+		Iterator<Map.Entry<Object, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+		while ( isOverflowing() && leastRecentlyUsed.hasNext() ) {
+			Map.Entry<Object, Entry> evicted = leastRecentlyUsed.next();
+			leastRecentlyUsed.remove();
+			byExpiration.remove( evicted.getKey() );
+			bytes -= evicted.getValue().weight;
+			evictions.increment();
+		}
+	}
+
+	@Override
+	public synchronized boolean contains(Object key) {
+		Entry entry = entries.get( key );
+		return entry != null && !entry.isExpired( clock.getAsLong() );
+	}
+
+	@Override
+	public synchronized void evictData() {
+		entries.clear();
+		byExpiration.clear();
+		bytes = 0;
+	}
+
+	@Override
+	public synchronized void evictData(Object key) {
+		remove( key );
+	}
+
+	@Override
+	public void release() {
+		evictData();
+	}
+
+	public String getRegionName() {
+		return regionName;
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the serialized size of the current entries, only tracked when the region is bounded by size
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return how many entries were removed to make room for new ones
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return how many entries were dropped once expired
+	 */
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	private boolean isOverflowing() {
+		return ( maxEntries > 0 && entries.size() > maxEntries ) || ( maxBytes > 0 && bytes > maxBytes );
+	}
+
+	private void remove(Object key) {
+		Entry removed = entries.remove( key );
+		if ( removed != null ) {
+			byExpiration.remove( key );
+			bytes -= removed.weight;
+		}
+	}
+
+	private void removeExpired(long now) {
+		Iterator<Map.Entry<Object, Entry>> oldest = byExpiration.entrySet().iterator();
+		while ( oldest.hasNext() ) {
+			Map.Entry<Object, Entry> expired = oldest.next();
+			if ( !expired.getValue().isExpired( now ) ) {
+				return;
+			}
+			oldest.remove();
+			entries.remove( expired.getKey() );
+			bytes -= expired.getValue().weight;
+			expirations.increment();
+		}
+	}
+
+	/**
+	 * Cache keys and entries are serializable so that they can be replicated; their serialized size is a good enough
+	 * estimate of their footprint.  Anything that cannot be serialized weighs nothing.
+	 */
+	private static long weigh(Object key, Object value) {
+		CountingOutputStream counter = new CountingOutputStream();
+		try ( ObjectOutputStream output = new ObjectOutputStream( counter ) ) {
+			output.writeObject( key );
+			output.writeObject( value );
+		}
+		catch (IOException e) {
+			return 0;
+		}
+		return counter.count;
+	}
+
+	private static final class Entry {
+
+		private final Object value;
+
+		private final long weight;
+
+		private final long expiresAt;
+
+		private Entry(Object value, long weight, long expiresAt) {
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package org.hibernate.envers.bugs.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * A region factory for long running, memory constrained tests.  Unlike
+ * {@code org.hibernate.testing.cache.CachingRegionFactory}, which grows without limit, every region evicts its least
+ * recently used entries once it is full, and entries can expire.
+ * <p>
+ * Enable it with {@code hibernate.cache.region.factory_class}, then tune it with:
+ * <ul>
+ * <li>{@code hibernate.cache.bounded.max_entries}: the maximum number of entries of a region, 10000 by default</li>
+ * <li>{@code hibernate.cache.bounded.max_bytes}: the maximum serialized size of the entries of a region, unbounded by
+ * default</li>
+ * <li>{@code hibernate.cache.bounded.ttl}: the milliseconds after which an entry expires, never by default</li>
+ * </ul>
+ * Each of these can be overridden for a single region by inserting the region name, as reported by the statistics,
+ * e.g. {@code hibernate.cache.bounded.hibernate.test.org.hibernate.envers.bugs.Foo.max_entries}.
+ * <p>
+ * The update timestamps region is never bounded: evicting from it would let queries read stale cached results.
+ */
+public class BoundedRegionFactory extends RegionFactoryTemplate {
+
+	public static final String PREFIX = "hibernate.cache.bounded.";
+
+	public static final String MAX_ENTRIES = "max_entries";
+
+	public static final String MAX_BYTES = "max_bytes";
+
+	public static final String TTL = "ttl";
+
+	public static final long DEFAULT_MAX_ENTRIES = 10_000;
+
+	private final Map<String, BoundedStorageAccess> storageByRegion = new ConcurrentHashMap<>();
+
+	private Map<String, Object> configValues = Collections.emptyMap();
+
+	public static BoundedRegionFactory from(SessionFactory sessionFactory) {
+		return (BoundedRegionFactory) sessionFactory.unwrap( SessionFactoryImplementor.class )
+				.getCache()
+				.getRegionFactory();
+	}
+
+	@Override
+	protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+		this.configValues = configValues;
+	}
+
+	@Override
+	protected DomainDataStorageAccess createDomainDataStorageAccess(
+			DomainDataRegionConfig regionConfig,
+			DomainDataRegionBuildingContext buildingContext) {
+		return createStorage( regionConfig.getRegionName() );
+	}
+
+	@Override
+	protected StorageAccess createQueryResultsRegionStorageAccess(
+			String regionName,
+			SessionFactoryImplementor sessionFactory) {
+		return createStorage( regionName );
+	}
+
+	@Override
+	protected StorageAccess createTimestampsRegionStorageAccess(
+			String regionName,
+			SessionFactoryImplementor sessionFactory) {
+		BoundedStorageAccess storage = new BoundedStorageAccess( regionName, 0, 0, 0 );
+		storageByRegion.put( regionName, storage );
+		return storage;
+	}
+
+	@Override
+	protected void releaseFromUse() {
+		storageByRegion.values().forEach( BoundedStorageAccess::release );
+		storageByRegion.clear();
+	}
+
+	/**
+	 * @return the storage of every region, to read their size, eviction and expiration counts
+	 */
+	public Collection<BoundedStorageAccess> getRegionStorages() {
+		return Collections.unmodifiableCollection( storageByRegion.values() );
+	}
+
+	public BoundedStorageAccess getRegionStorage(String regionName) {
+		return storageByRegion.get( regionName );
+	}
+
+	private BoundedStorageAccess createStorage(String regionName) {
+		BoundedStorageAccess storage = new BoundedStorageAccess(
+				regionName,
+				setting( regionName, MAX_ENTRIES, DEFAULT_MAX_ENTRIES ),
+				setting( regionName, MAX_BYTES, 0 ),
+				setting( regionName, TTL, 0 )
+		);
+		storageByRegion.put( regionName, storage );
+		return storage;
+	}
+
+	private long setting(String regionName, String name, long defaultValue) {
+		Object value = configValues.get( PREFIX + regionName + "." + name );
+		if ( value == null ) {
+			value = configValues.get( PREFIX + name );
+		}
+		return value == null ? defaultValue : Long.parseLong( value.toString().trim() );
+	}
+}
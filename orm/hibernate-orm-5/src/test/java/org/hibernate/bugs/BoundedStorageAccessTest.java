@@ -0,0 +1,89 @@
+package org.hibernate.bugs;
+
+import org.hibernate.bugs.cache.BoundedStorageAccess;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the eviction policies of the regions created by {@link org.hibernate.bugs.cache.BoundedRegionFactory}.
+ */
+public class BoundedStorageAccessTest {
+
+	@Test
+	public void evictsLeastRecentlyUsedEntryTest() {
+		// Given
+		BoundedStorageAccess storage = new BoundedStorageAccess("users", 2, 0, 0);
+		storage.putIntoCache(1L, "Alice", null);
+		storage.putIntoCache(2L, "Bob", null);
+
+		// When
+		assertEquals("Alice", storage.getFromCache(1L, null));
+		storage.putIntoCache(3L, "Charlie", null);
+
+		// Then
+		assertEquals(2, storage.getSize());
+		assertEquals(1, storage.getEvictionCount());
+		assertTrue(storage.contains(1L));
+		assertFalse(storage.contains(2L));
+		assertTrue(storage.contains(3L));
+	}
+
+	@Test
+	public void evictsUntilUnderByteLimitTest() {
+		// Given
+		BoundedStorageAccess storage = new BoundedStorageAccess("users", 0, 300, 0);
+
+		// When
+		for (long id = 0; id < 100; id++) {
+			storage.putIntoCache(id, "user-" + id, null);
+		}
+
+		// Then
+		assertTrue(storage.getBytes() <= 300);
+		assertTrue(storage.getEvictionCount() > 0);
+		assertTrue(storage.contains(99L));
+		assertFalse(storage.contains(0L));
+	}
+
+	@Test
+	public void expiresEntriesAfterTtlTest() {
+		// Given
+		AtomicLong now = new AtomicLong();
+		BoundedStorageAccess storage = new BoundedStorageAccess("users", 0, 0, 10, now::get);
+		storage.putIntoCache(1L, "Alice", null);
+
+		// When
+		now.addAndGet(10);
+
+		// Then
+		assertNull(storage.getFromCache(1L, null));
+		assertEquals(1, storage.getExpirationCount());
+		assertEquals(0, storage.getSize());
+	}
+
+	@Test
+	public void dropsExpiredEntriesOnPutBeforeEvictingTest() {
+		// Given
+		AtomicLong now = new AtomicLong();
+		BoundedStorageAccess storage = new BoundedStorageAccess("users", 2, 0, 10, now::get);
+		storage.putIntoCache(1L, "Alice", null);
+		now.addAndGet(5);
+		storage.putIntoCache(2L, "Bob", null);
+		assertEquals("Alice", storage.getFromCache(1L, null));
+
+		// When
+		now.addAndGet(5);
+		storage.putIntoCache(3L, "Charlie", null);
+
+		// Then
+		assertEquals(2, storage.getSize());
+		assertEquals(1, storage.getExpirationCount());
+		assertEquals(0, storage.getEvictionCount());
+		assertFalse(storage.contains(1L));
+		assertTrue(storage.contains(2L));
+		assertTrue(storage.contains(3L));
+	}
+}
@@ -0,0 +1,144 @@
+package org.hibernate.bugs;
+
+import org.hibernate.bugs.lazy.NPlusOneDetector;
+import org.hibernate.bugs.lazy.NPlusOneSelectException;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserSkill;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link NPlusOneDetector} reports the loops touching a lazy association of each user, and only when
+ * {@code hibernate.n_plus_one.action} turns it on.
+ */
+public class NPlusOneDetectorTest {
+
+	private static final int USERS = 5;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@After
+	public void destroy() {
+		entityManagerFactory.close();
+	}
+
+	@Test
+	public void detectorIsOffByDefaultTest() {
+		// When
+		entityManagerFactory = Persistence.createEntityManagerFactory("templatePU");
+
+		// Then
+		assertNull(NPlusOneDetector.from(entityManagerFactory));
+	}
+
+	@Test
+	public void skillsInitializedInALoopAreReportedTest() {
+		// Given
+		init(NPlusOneDetector.Action.LOG);
+		persistUsersWithOneSkill();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<User> users = entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+		for (User user : users) {
+			user.getSkills().size();
+		}
+		entityManager.close();
+
+		// Then
+		List<NPlusOneDetector.Violation> violations = NPlusOneDetector.from(entityManagerFactory).getViolations();
+		assertEquals(1, violations.size());
+		NPlusOneDetector.Violation violation = violations.get(0);
+		assertEquals(User.class.getName() + ".skills", violation.getPath());
+		assertEquals(USERS, violation.getCount());
+		assertEquals(1, violation.getCallSites().size());
+		assertTrue(violation.toString(), violation.getCallSites().keySet().iterator().next()
+				.startsWith(NPlusOneDetectorTest.class.getName() + ".skillsInitializedInALoopAreReportedTest"));
+	}
+
+	@Test
+	public void userProxiesInitializedInALoopAreReportedTest() {
+		// Given
+		init(NPlusOneDetector.Action.LOG);
+		persistUsersWithOneSkill();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<UserSkill> skills = entityManager.createQuery("SELECT s FROM UserSkill s", UserSkill.class).getResultList();
+		for (UserSkill skill : skills) {
+			skill.getUser().getName();
+		}
+		entityManager.close();
+
+		// Then
+		List<NPlusOneDetector.Violation> violations = NPlusOneDetector.from(entityManagerFactory).getViolations();
+		assertEquals(1, violations.size());
+		assertEquals(UserSkill.class.getName() + ".user", violations.get(0).getPath());
+		assertEquals(USERS, violations.get(0).getCount());
+	}
+
+	@Test
+	public void failActionThrowsOnceOverThresholdTest() {
+		// Given
+		init(NPlusOneDetector.Action.FAIL);
+		persistUsersWithOneSkill();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<User> users = entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+		int initialized = 0;
+		try {
+			for (User user : users) {
+				initialized++;
+				user.getSkills().size();
+			}
+			fail("Initializing the skills of each user should have been reported");
+		}
+		catch (NPlusOneSelectException e) {
+			// Then
+			assertEquals(4, initialized);
+			assertTrue(e.getMessage(), e.getMessage().contains(User.class.getName() + ".skills initialized 4 times"));
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+	private void init(NPlusOneDetector.Action action) {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put(NPlusOneDetector.THRESHOLD, "3");
+		properties.put(NPlusOneDetector.ACTION, action.name());
+		entityManagerFactory = Persistence.createEntityManagerFactory("templatePU", properties);
+	}
+
+	private void persistUsersWithOneSkill() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		for (int i = 1; i <= USERS; i++) {
+			User user = new User();
+			user.setName("User " + i);
+			entityManager.persist(user);
+
+			UserSkill skill = new UserSkill();
+			skill.setSkillName("Java");
+			skill.setDeleted(false);
+			skill.setUser(user);
+			entityManager.persist(skill);
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		entityManagerFactory.getCache().evictAll();
+	}
+}
@@ -0,0 +1,64 @@
+package org.hibernate.bugs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.bugs.jdbc.PoolSelectingConnectionProvider;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the template keeps Hibernate's built-in pool unless {@code hibernate.pool.hikari} turns HikariCP on.
+ */
+public class PoolSelectingConnectionProviderTest {
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@After
+	public void destroy() {
+		entityManagerFactory.close();
+	}
+
+	@Test
+	public void builtInPoolByDefaultTest() {
+		// When
+		entityManagerFactory = Persistence.createEntityManagerFactory("templatePU");
+
+		// Then
+		ConnectionProvider pool = PoolSelectingConnectionProvider.from(entityManagerFactory);
+		assertTrue(pool.getClass().getName(), pool instanceof DriverManagerConnectionProviderImpl);
+		assertNull(find(1L));
+	}
+
+	@Test
+	public void hikariPoolWhenEnabledTest() {
+		// When
+		entityManagerFactory = Persistence.createEntityManagerFactory("templatePU",
+				Collections.singletonMap(PoolSelectingConnectionProvider.HIKARI, "true"));
+
+		// Then
+		HikariDataSource dataSource = PoolSelectingConnectionProvider.from(entityManagerFactory)
+				.unwrap(HikariDataSource.class);
+		assertEquals("templatePool", dataSource.getPoolName());
+		assertEquals(64, dataSource.getMaximumPoolSize());
+		assertNull(find(1L));
+	}
+
+	private User find(Long id) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			return entityManager.find(User.class, id);
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package org.hibernate.bugs.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.ServiceRegistryAwareService;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
+import org.hibernate.service.spi.Stoppable;
+
+/**
+ * The connection provider of the template: Hibernate's built-in pool, which serializes every thread beyond
+ * {@code hibernate.connection.pool_size} on connection acquisition, unless {@code hibernate.pool.hikari} is
+ * {@code true}.  HikariCP is then used instead, configured by the {@code hibernate.hikari.*} settings, for
+ * multi-threaded tests.
+ * <p>
+ * Look the actual pool up with {@link #from(EntityManagerFactory)}, then unwrap it, e.g. to a
+ * {@code com.zaxxer.hikari.HikariDataSource}.
+ */
+public class PoolSelectingConnectionProvider
+		implements ConnectionProvider, Configurable, ServiceRegistryAwareService, Stoppable {
+
+	public static final String HIKARI = "hibernate.pool.hikari";
+
+	private ServiceRegistryImplementor serviceRegistry;
+
+	private ConnectionProvider pool;
+
+	public static ConnectionProvider from(EntityManagerFactory entityManagerFactory) {
+		return entityManagerFactory.unwrap( SessionFactoryImplementor.class )
+				.getServiceRegistry()
+				.getService( ConnectionProvider.class )
+				.unwrap( PoolSelectingConnectionProvider.class )
+				.pool;
+	}
+
+	@Override
+	public void injectServices(ServiceRegistryImplementor serviceRegistry) {
+		this.serviceRegistry = serviceRegistry;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void configure(Map configurationValues) {
+		if ( ConfigurationHelper.getBoolean( HIKARI, configurationValues, false ) ) {
+			pool = new HikariCPConnectionProvider();
+		}
+		else {
+			DriverManagerConnectionProviderImpl builtIn = new DriverManagerConnectionProviderImpl();
+			builtIn.injectServices( serviceRegistry );
+			pool = builtIn;
+		}
+		( (Configurable) pool ).configure( configurationValues );
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return pool.getConnection();
+	}
+
+	@Override
+	public void closeConnection(Connection connection) throws SQLException {
+		pool.closeConnection( connection );
+	}
+
+	@Override
+	public boolean supportsAggressiveRelease() {
+		return pool.supportsAggressiveRelease();
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public boolean isUnwrappableAs(Class unwrapType) {
+		return unwrapType.isInstance( this ) || pool.isUnwrappableAs( unwrapType );
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> unwrapType) {
+		if ( unwrapType.isInstance( this ) ) {
+			return (T) this;
+		}
+		return pool.unwrap( unwrapType );
+	}
+
+	@Override
+	public void stop() {
+		( (Stoppable) pool ).stop();
+	}
+}
@@ -0,0 +1,293 @@
+package org.hibernate.bugs.lazy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.hibernate.type.Type;
+import org.jboss.logging.Logger;
+
+/**
+ * Counts the lazy initializations of each session, by association, and reports every association initialized more
+ * than {@code hibernate.n_plus_one.threshold} times in one session: the classic N+1 select, where a loop over
+ * query results touches a lazy association of each of them.
+ * <p>
+ * Two kinds of initialization are counted:
+ * <ul>
+ * <li>collections, by role, e.g. {@code org.hibernate.entity.User.skills}</li>
+ * <li>proxies, by the association of the entity in the session referencing them, e.g.
+ * {@code org.hibernate.entity.UserSkill.user}, or by entity name followed by {@code " (proxy)"} for a reference
+ * obtained directly from the session</li>
+ * </ul>
+ * {@code User.detail} is the inverse side of a one-to-one, which Hibernate cannot proxy without bytecode enhancement:
+ * it is selected along with each {@code User}, never lazily initialized, so its N+1 selects only show in the SQL log.
+ * <p>
+ * Each initialization is attributed to its call site, the first stack frame outside of Hibernate and of the entity
+ * proxies, so that the report points at the loop to fix.  Walking the stack is only done on lazy initializations,
+ * which are slow anyway, but benchmarks should still turn the detector off.
+ *
+ * @see NPlusOneIntegrator
+ */
+public class NPlusOneDetector implements InitializeCollectionEventListener, LoadEventListener {
+
+	public enum Action {
+		/**
+		 * The detector is not registered at all.
+		 */
+		OFF,
+		/**
+		 * Violations are logged and collected when their session closes.
+		 */
+		LOG,
+		/**
+		 * Violations are collected, and the initialization exceeding the threshold throws an
+		 * {@link NPlusOneSelectException}.
+		 */
+		FAIL
+	}
+
+	public static final String THRESHOLD = "hibernate.n_plus_one.threshold";
+
+	public static final String ACTION = "hibernate.n_plus_one.action";
+
+	public static final int DEFAULT_THRESHOLD = 5;
+
+	private static final Logger LOG = Logger.getLogger( NPlusOneDetector.class );
+
+	private static final Map<SessionFactoryImplementor, NPlusOneDetector> DETECTORS = new ConcurrentHashMap<>();
+
+	private final int threshold;
+
+	private final Action action;
+
+	private final Map<UUID, UnitOfWork> unitsOfWork = new ConcurrentHashMap<>();
+
+	private final List<Violation> violations = new CopyOnWriteArrayList<>();
+
+	NPlusOneDetector(int threshold, Action action) {
+		this.threshold = threshold;
+		this.action = action;
+	}
+
+	/**
+	 * @return the detector of the given persistence unit, or {@code null} if its action is {@link Action#OFF}
+	 */
+	public static NPlusOneDetector from(EntityManagerFactory entityManagerFactory) {
+		return DETECTORS.get( entityManagerFactory.unwrap( SessionFactoryImplementor.class ) );
+	}
+
+	static void register(SessionFactoryImplementor sessionFactory, NPlusOneDetector detector) {
+		DETECTORS.put( sessionFactory, detector );
+	}
+
+	static void unregister(SessionFactoryImplementor sessionFactory) {
+		DETECTORS.remove( sessionFactory );
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return the violations of the sessions closed so far, oldest first
+	 */
+	public List<Violation> getViolations() {
+		return Collections.unmodifiableList( new ArrayList<>( violations ) );
+	}
+
+	public void clear() {
+		violations.clear();
+	}
+
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) {
+		record( event.getSession(), event.getCollection().getRole() );
+	}
+
+	@Override
+	public void onLoad(LoadEvent event, LoadType loadType) {
+		// The other load types are finds, query results and eager associations, which are not lazy initializations
+		if ( loadType == IMMEDIATE_LOAD ) {
+			record( event.getSession(), proxyPath( event ) );
+		}
+	}
+
+	/**
+	 * Looks the proxy being initialized up among the many-to-one and one-to-one values of the entities of the session,
+	 * so that a loop over skills is told apart from a loop over details.  This is linear in the size of the session,
+	 * on each lazy initialization only.
+	 */
+	private static String proxyPath(LoadEvent event) {
+		String entityName = event.getEntityClassName();
+		for ( Map.Entry<Object, EntityEntry> entry
+				: event.getSession().getPersistenceContextInternal().reentrantSafeEntityEntries() ) {
+			EntityPersister owner = entry.getValue().getPersister();
+			Type[] propertyTypes = owner.getPropertyTypes();
+			for ( int i = 0; i < propertyTypes.length; i++ ) {
+				if ( !propertyTypes[i].isEntityType() ) {
+					continue;
+				}
+				Object value = owner.getPropertyValue( entry.getKey(), i );
+				if ( value instanceof HibernateProxy ) {
+					LazyInitializer initializer = ( (HibernateProxy) value ).getHibernateLazyInitializer();
+					if ( entityName.equals( initializer.getEntityName() )
+							&& event.getEntityId().equals( initializer.getInternalIdentifier() ) ) {
+						return owner.getEntityName() + "." + owner.getPropertyNames()[i];
+					}
+				}
+			}
+		}
+		return entityName + " (proxy)";
+	}
+
+	private void record(EventSource session, String path) {
+		UnitOfWork unitOfWork = unitsOfWork.get( session.getSessionIdentifier() );
+		if ( unitOfWork == null ) {
+			unitOfWork = new UnitOfWork( session.getSessionIdentifier() );
+			unitsOfWork.put( unitOfWork.sessionIdentifier, unitOfWork );
+			session.getEventListenerManager().addListener( unitOfWork );
+		}
+
+		int count = unitOfWork.record( path, callSite() );
+		if ( action == Action.FAIL && count == threshold + 1 ) {
+			throw new NPlusOneSelectException( unitOfWork.violation( path ).toString() );
+		}
+	}
+
+	private static String callSite() {
+		// No StackWalker on Java 8
+		for ( StackTraceElement frame : new Throwable().getStackTrace() ) {
+			if ( isApplicationClass( frame.getClassName() ) ) {
+				return frame.toString();
+			}
+		}
+		return "unknown";
+	}
+
+	private static boolean isApplicationClass(String className) {
+		if ( className.startsWith( NPlusOneDetector.class.getName() ) || className.contains( "$HibernateProxy$" ) ) {
+			return false;
+		}
+		if ( className.startsWith( "org.hibernate.bugs." ) || className.startsWith( "org.hibernate.entity." ) ) {
+			return true;
+		}
+		return !className.startsWith( "org.hibernate." )
+				&& !className.startsWith( "java." )
+				&& !className.startsWith( "jdk." )
+				&& !className.startsWith( "sun." );
+	}
+
+	/**
+	 * The initializations of one session, reported when it closes.
+	 */
+	private class UnitOfWork extends BaseSessionEventListener {
+
+		private final UUID sessionIdentifier;
+
+		private final Map<String, Map<String, Integer>> callSitesByPath = new HashMap<>();
+
+		private UnitOfWork(UUID sessionIdentifier) {
+			this.sessionIdentifier = sessionIdentifier;
+		}
+
+		/**
+		 * @return the number of initializations of {@code path} in this session so far
+		 */
+		private int record(String path, String callSite) {
+			Map<String, Integer> callSites = callSitesByPath.computeIfAbsent( path, key -> new HashMap<>() );
+			callSites.merge( callSite, 1, Integer::sum );
+			return callSites.values().stream().mapToInt( Integer::intValue ).sum();
+		}
+
+		private Violation violation(String path) {
+			return new Violation( path, threshold, callSitesByPath.get( path ) );
+		}
+
+		@Override
+		public void end() {
+			unitsOfWork.remove( sessionIdentifier );
+			for ( String path : callSitesByPath.keySet() ) {
+				Violation violation = violation( path );
+				if ( violation.getCount() > threshold ) {
+					violations.add( violation );
+					LOG.warn( violation );
+				}
+			}
+		}
+	}
+
+	/**
+	 * An association initialized more times than the threshold in one session.
+	 */
+	public static class Violation {
+
+		private final String path;
+
+		private final int threshold;
+
+		private final Map<String, Integer> callSites = new LinkedHashMap<>();
+
+		private final int count;
+
+		Violation(String path, int threshold, Map<String, Integer> callSites) {
+			this.path = path;
+			this.threshold = threshold;
+			callSites.entrySet().stream()
+					.sorted( Map.Entry.<String, Integer>comparingByValue().reversed() )
+					.forEach( entry -> this.callSites.put( entry.getKey(), entry.getValue() ) );
+			this.count = callSites.values().stream().mapToInt( Integer::intValue ).sum();
+		}
+
+		/**
+		 * @return the collection role, the owning association of a proxy, or the entity name followed by
+		 * {@code " (proxy)"}
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the number of initializations by call site, most frequent first
+		 */
+		public Map<String, Integer> getCallSites() {
+			return Collections.unmodifiableMap( callSites );
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder message = new StringBuilder()
+					.append( "N+1 select: " ).append( path )
+					.append( " initialized " ).append( count )
+					.append( " times in one session (threshold " ).append( threshold ).append( ")" );
+			callSites.forEach( (callSite, times) -> message.append( "\n\t" ).append( times )
+					.append( " x " ).append( callSite ) );
+			return message.toString();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package org.hibernate.bugs.lazy;
+
+import java.util.Locale;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Registers a {@link NPlusOneDetector} with every session factory, configured with:
+ * <ul>
+ * <li>{@code hibernate.n_plus_one.threshold}: the number of initializations of an association allowed in one
+ * session, 5 by default</li>
+ * <li>{@code hibernate.n_plus_one.action}: {@code off} (the default), {@code log} or {@code fail}</li>
+ * </ul>
+ * Registered through {@code META-INF/services/org.hibernate.integrator.spi.Integrator}.
+ */
+public class NPlusOneIntegrator implements Integrator {
+
+	@Override
+	public void integrate(
+			Metadata metadata,
+			SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		ConfigurationService configuration = serviceRegistry.getService( ConfigurationService.class );
+		NPlusOneDetector.Action action = NPlusOneDetector.Action.valueOf( configuration.getSetting(
+				NPlusOneDetector.ACTION, StandardConverters.STRING, NPlusOneDetector.Action.OFF.name() )
+				.trim()
+				.toUpperCase( Locale.ROOT ) );
+		if ( action == NPlusOneDetector.Action.OFF ) {
+			return;
+		}
+
+		NPlusOneDetector detector = new NPlusOneDetector(
+				configuration.getSetting(
+						NPlusOneDetector.THRESHOLD,
+						value -> Integer.valueOf( value.toString().trim() ),
+						NPlusOneDetector.DEFAULT_THRESHOLD
+				),
+				action
+		);
+		EventListenerRegistry listenerRegistry = serviceRegistry.getService( EventListenerRegistry.class );
+		listenerRegistry.appendListeners( EventType.INIT_COLLECTION, detector );
+		listenerRegistry.appendListeners( EventType.LOAD, detector );
+		NPlusOneDetector.register( sessionFactory, detector );
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		NPlusOneDetector.unregister( sessionFactory );
+	}
+}
@@ -17,7 +17,9 @@ import static javax.persistence.GenerationType.IDENTITY;
                 @NamedAttributeNode(value = "skills")
         }
 )
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_user_name", columnList = "user_name")
+})
 @Entity(name = "User")
 public class User {
 
@@ -10,7 +10,9 @@ import static javax.persistence.FetchType.LAZY;
 import static javax.persistence.GenerationType.IDENTITY;
 
 @Where(clause = "is_active = true")
-@Table(name = "user_details")
+@Table(name = "user_details", indexes = {
+        @Index(name = "idx_user_details_user_id_is_active", columnList = "user_id, is_active")
+})
 @Entity(name = "UserDetail")
 public class UserDetail {
 
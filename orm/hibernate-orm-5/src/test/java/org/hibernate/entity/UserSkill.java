@@ -10,7 +10,9 @@ import static javax.persistence.FetchType.LAZY;
 import static javax.persistence.GenerationType.IDENTITY;
 
 @Where(clause = "has_deleted = false")
-@Table(name = "user_skills")
+@Table(name = "user_skills", indexes = {
+        @Index(name = "idx_user_skills_user_id_has_deleted", columnList = "user_id, has_deleted")
+})
 @Entity(name = "UserSkill")
 public class UserSkill {
 
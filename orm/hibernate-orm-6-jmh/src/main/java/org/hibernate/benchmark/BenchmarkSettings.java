@@ -0,0 +1,50 @@
+package org.hibernate.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.hibernate.bugs.cost.OperationCost;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+
+/**
+ * Overrides applied on top of the "templatePU" persistence unit when it is bootstrapped from a benchmark.
+ */
+public final class BenchmarkSettings {
+
+	private BenchmarkSettings() {
+	}
+
+	/**
+	 * The template logs every statement and every session's metrics, which would dominate the measurements.  Its
+	 * second-level cache is turned off too: a repeated lookup would otherwise be served from memory, and measure the
+	 * cache rather than the queries.  The benchmarks of the cache turn it back on.
+	 */
+	public static Map<String, Object> quiet() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put( "hibernate.show_sql", "false" );
+		settings.put( "hibernate.session.events.log", "false" );
+		settings.put( "hibernate.cache.use_second_level_cache", "false" );
+		return settings;
+	}
+
+	/**
+	 * {@link #quiet()}, plus the statistics and JDBC counting that {@link StatementCounters} reads.
+	 */
+	public static Map<String, Object> counted() {
+		Map<String, Object> settings = quiet();
+		settings.putAll( OperationCost.settings() );
+		settings.put( "hibernate.connection.provider_class", CountingConnectionProvider.class.getName() );
+		return settings;
+	}
+
+	/**
+	 * {@link #quiet()}, with the connections taken from the given pool instead of the built-in one.  The caller closes
+	 * the pool once the factory is closed.
+	 */
+	public static Map<String, Object> pooled(DataSource dataSource) {
+		Map<String, Object> settings = quiet();
+		settings.put( "hibernate.connection.provider_class", new DataSourceConnectionProvider( dataSource ) );
+		return settings;
+	}
+}
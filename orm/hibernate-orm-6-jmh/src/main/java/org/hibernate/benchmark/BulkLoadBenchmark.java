@@ -0,0 +1,91 @@
+package org.hibernate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Renders a "page" of users, once with a {@link JPAUnitTestCase#findUserByIdUsingEntityGraph(Long)} per id and
+ * once with the chunked {@link JPAUnitTestCase#findUsersByIdsUsingEntityGraph(java.util.Collection, int)}.
+ * <p>
+ * Besides the time per page, the {@link StatementCounters} report the statements, transactions and rows each variant
+ * needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class BulkLoadBenchmark {
+
+	@Param({ "100000" })
+	private int userCount;
+
+	@Param({ "500" })
+	private int pageSize;
+
+	@Param({ "50", "100", "500" })
+	private int chunkSize;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	private List<Long> page;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.counted() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@Setup(Level.Iteration)
+	public void nextPage() {
+		page = new ArrayList<>( pageSize );
+		for ( int i = 0; i < pageSize; i++ ) {
+			page.add( firstId + ThreadLocalRandom.current().nextInt( userCount ) );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public List<User> findPerId(StatementCounters counters) {
+		return counters.record( template.getEntityManagerFactory(), () -> {
+			List<User> users = new ArrayList<>( page.size() );
+			for ( Long id : page ) {
+				users.add( template.findUserByIdUsingEntityGraph( id ) );
+			}
+			return users;
+		} );
+	}
+
+	@Benchmark
+	public List<User> findInChunks(StatementCounters counters) {
+		return counters.record( template.getEntityManagerFactory(), () -> template.findUsersByIdsUsingEntityGraph( page, chunkSize ) );
+	}
+}
@@ -0,0 +1,56 @@
+package org.hibernate.benchmark;
+
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH results counting the second-level cache hits, misses and puts of the measured operations, all regions
+ * together.  Counters are totals per iteration: divide them by {@code operations} for per-operation figures.
+ * <p>
+ * The counts are read from the statistics of the whole factory, so they are only exact with a single benchmark
+ * thread, and require {@code hibernate.generate_statistics}.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class CacheCounters {
+
+	public long operations;
+
+	public long cacheHits;
+
+	public long cacheMisses;
+
+	public long cachePuts;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		operations = 0;
+		cacheHits = 0;
+		cacheMisses = 0;
+		cachePuts = 0;
+	}
+
+	// Not public: JMH would take it for a counter
+	<T> T record(EntityManagerFactory entityManagerFactory, Supplier<T> operation) {
+		Statistics statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+		long hitsBefore = statistics.getSecondLevelCacheHitCount();
+		long missesBefore = statistics.getSecondLevelCacheMissCount();
+		long putsBefore = statistics.getSecondLevelCachePutCount();
+
+		T result = operation.get();
+
+		operations++;
+		cacheHits += statistics.getSecondLevelCacheHitCount() - hitsBefore;
+		cacheMisses += statistics.getSecondLevelCacheMissCount() - missesBefore;
+		cachePuts += statistics.getSecondLevelCachePutCount() - putsBefore;
+		return result;
+	}
+}
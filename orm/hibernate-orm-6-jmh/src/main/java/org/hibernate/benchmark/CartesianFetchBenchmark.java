@@ -0,0 +1,96 @@
+package org.hibernate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.GraphFetchMode;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The "multiple details and multiple skills" scenarios of {@link JPAUnitTestCase} at scale: every user has a history
+ * of inactive details next to its active one, and several skills.  Compares the {@link GraphFetchMode#JOINED} and
+ * {@link GraphFetchMode#SPLIT} executions of the entity graph.
+ * <p>
+ * The {@code rows} counter shows how many result set rows each mode reads, {@code gc.alloc.rate.norm} the heap it
+ * allocates per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CartesianFetchBenchmark {
+
+	@Param({ "10000" })
+	private int userCount;
+
+	@Param({ "2", "8" })
+	private int inactiveDetailsPerUser;
+
+	@Param({ "4", "16" })
+	private int skillsPerUser;
+
+	@Param({ "JOINED", "SPLIT" })
+	private GraphFetchMode mode;
+
+	@Param({ "100" })
+	private int pageSize;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	private List<Long> page;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.counted() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, skillsPerUser, inactiveDetailsPerUser );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@Setup(Level.Iteration)
+	public void nextPage() {
+		page = new ArrayList<>( pageSize );
+		for ( int i = 0; i < pageSize; i++ ) {
+			page.add( firstId + ThreadLocalRandom.current().nextInt( userCount ) );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public User findUserById(StatementCounters counters) {
+		long id = firstId + ThreadLocalRandom.current().nextInt( userCount );
+		return counters.record( template.getEntityManagerFactory(),
+				() -> template.findUserByIdUsingEntityGraph( id, mode ) );
+	}
+
+	@Benchmark
+	public List<User> findUsersByIds(StatementCounters counters) {
+		return counters.record( template.getEntityManagerFactory(),
+				() -> template.findUsersByIdsUsingEntityGraph( page, pageSize, mode ) );
+	}
+}
@@ -0,0 +1,132 @@
+package org.hibernate.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Drives {@code findUserByNameUsingEntityGraph} from many threads at once, either through Hibernate's built-in pool
+ * ({@code hibernate.connection.pool_size 5}, as configured by the template) or through a HikariCP pool, handed to
+ * Hibernate as its data source.
+ * <p>
+ * JMH cannot use the thread count as a parameter: run the benchmark once per thread count, with {@code -t 1} to
+ * {@code -t 64}.  With HikariCP, the connection acquisition percentiles of every iteration are logged.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ConnectionPoolBenchmark {
+
+	public enum Pool {
+		BUILTIN,
+		HIKARICP
+	}
+
+	private static final Logger LOG = Logger.getLogger( ConnectionPoolBenchmark.class );
+
+	private static final String POOL_NAME = "benchmarkPool";
+
+	private static final String URL = "jdbc:h2:mem:connectionPoolBenchmark;DB_CLOSE_DELAY=-1";
+
+	@Param({ "BUILTIN", "HIKARICP" })
+	private Pool pool;
+
+	@Param({ "64" })
+	private int maximumPoolSize;
+
+	@Param({ "10000" })
+	private int userCount;
+
+	@Param({ "4" })
+	private int skillsPerUser;
+
+	private JPAUnitTestCase template;
+
+	private HikariDataSource dataSource;
+
+	private HistogramMetricsTrackerFactory.PoolMetrics poolMetrics;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Map<String, Object> settings = BenchmarkSettings.quiet();
+		if ( pool == Pool.HIKARICP ) {
+			HistogramMetricsTrackerFactory metrics = new HistogramMetricsTrackerFactory();
+			HikariConfig config = new HikariConfig();
+			config.setPoolName( POOL_NAME );
+			config.setJdbcUrl( URL );
+			config.setUsername( "sa" );
+			config.setMinimumIdle( maximumPoolSize );
+			config.setMaximumPoolSize( maximumPoolSize );
+			config.setLeakDetectionThreshold( 2000 );
+			config.setMetricsTrackerFactory( metrics );
+			dataSource = new HikariDataSource( config );
+			poolMetrics = metrics.forPool( POOL_NAME );
+			settings = BenchmarkSettings.pooled( dataSource );
+		}
+
+		template = new JPAUnitTestCase();
+		template.init( settings );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, skillsPerUser, 2 );
+	}
+
+	@Setup(Level.Iteration)
+	public void resetMetrics() {
+		if ( poolMetrics != null ) {
+			poolMetrics.reset();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void logMetrics() {
+		if ( poolMetrics != null ) {
+			LOG.info( poolMetrics );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+		if ( dataSource != null ) {
+			dataSource.close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public User loadGraphByNameThroughput() {
+		return template.findUserByNameUsingEntityGraph( randomName() );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public User loadGraphByNameLatency() {
+		return template.findUserByNameUsingEntityGraph( randomName() );
+	}
+
+	private String randomName() {
+		return UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( userCount ) );
+	}
+}
@@ -0,0 +1,134 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.bugs.reset.DataReset;
+import org.hibernate.bugs.reset.DeleteReset;
+import org.hibernate.bugs.reset.RollbackReset;
+import org.hibernate.bugs.reset.SnapshotReset;
+import org.hibernate.bugs.reset.TruncateReset;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What each {@link DataReset} adds to a test, when the tests share a baseline of pre-seeded users.
+ * <p>
+ * {@code test} is a small test on its own: it persists a user and loads it back with its entity graph.  {@code
+ * testAndReset} runs the same test, then puts the tables back in their state before it: the strategies which keep a
+ * baseline restore it, those which empty the tables have to seed it again, as a test class relying on these rows
+ * would do before each test.  The difference between the two is the per-test overhead of the strategy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DataResetBenchmark {
+
+	public enum Strategy {
+		DELETE( DeleteReset.class, false ),
+		TRUNCATE( TruncateReset.class, false ),
+		SNAPSHOT( SnapshotReset.class, true ),
+		ROLLBACK( RollbackReset.class, true );
+
+		private final Class<? extends DataReset> type;
+
+		private final boolean keepsBaseline;
+
+		Strategy(Class<? extends DataReset> type, boolean keepsBaseline) {
+			this.type = type;
+			this.keepsBaseline = keepsBaseline;
+		}
+	}
+
+	@Param({ "DELETE", "TRUNCATE", "SNAPSHOT", "ROLLBACK" })
+	private Strategy strategy;
+
+	@Param({ "10000" })
+	private int userCount;
+
+	private JPAUnitTestCase template;
+
+	private DataReset dataReset;
+
+	private int tests;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException {
+		template = new JPAUnitTestCase().resetWith( strategy.type );
+		dataReset = strategy.type.getConstructor().newInstance();
+
+		// The template adds the settings of the strategy, such as the connection provider of ROLLBACK
+		template.init( BenchmarkSettings.quiet() );
+
+		seedBaseline();
+	}
+
+	/**
+	 * Keeps {@code test} from piling up users, or a never-ending transaction with ROLLBACK, from one iteration to the
+	 * next.
+	 */
+	@TearDown(Level.Iteration)
+	public void restoreBaseline() {
+		reset();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.destroy();
+	}
+
+	@Benchmark
+	public User test() {
+		return runTest();
+	}
+
+	@Benchmark
+	public User testAndReset() {
+		User user = runTest();
+		reset();
+		return user;
+	}
+
+	private void reset() {
+		dataReset.reset( template.getEntityManagerFactory() );
+		if ( !strategy.keepsBaseline ) {
+			seedBaseline();
+		}
+	}
+
+	private void seedBaseline() {
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 0, 0 );
+		if ( strategy.keepsBaseline ) {
+			template.markBaseline();
+		}
+	}
+
+	private User runTest() {
+		String name = "test-" + tests++;
+
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		UserScenario.DAVID.persist( entityManager, name );
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return template.findUserByNameUsingEntityGraph( name );
+	}
+}
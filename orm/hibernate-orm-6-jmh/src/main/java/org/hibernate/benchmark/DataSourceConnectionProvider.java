@@ -0,0 +1,45 @@
+package org.hibernate.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+/**
+ * Hands out the connections of a pool configured outside of Hibernate.  Unlike the {@code hibernate.connection.datasource}
+ * setting, it ignores the credentials of the template, which HikariCP would reject in {@code getConnection(user, password)}.
+ */
+final class DataSourceConnectionProvider implements ConnectionProvider {
+
+	private final DataSource dataSource;
+
+	DataSourceConnectionProvider(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return dataSource.getConnection();
+	}
+
+	@Override
+	public void closeConnection(Connection connection) throws SQLException {
+		connection.close();
+	}
+
+	@Override
+	public boolean supportsAggressiveRelease() {
+		return false;
+	}
+
+	@Override
+	public boolean isUnwrappableAs(Class<?> unwrapType) {
+		return unwrapType.isInstance( this ) || unwrapType.isInstance( dataSource );
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> unwrapType) {
+		return unwrapType.cast( unwrapType.isInstance( this ) ? this : dataSource );
+	}
+}
@@ -0,0 +1,117 @@
+package org.hibernate.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.entity.User;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Flushes a persistence context holding all the seeded users, to compare snapshot diffing with the in-line dirty
+ * tracking of bytecode-enhanced entities.  The same benchmark runs either way: build the jar once without and once
+ * with the {@code enhance} profile, and compare the results of {@code benchmarks.jar} and
+ * {@code benchmarks-enhanced.jar}.
+ * <p>
+ * Each iteration loads the users into a new session, then logs how many entities it manages and the heap retained
+ * per entity.  Without enhancement, loading a user also selects its detail, as the inverse one-to-one cannot be
+ * proxied, and every entity keeps a snapshot of its loaded state.  The flushes then either find nothing to write, or
+ * update the names of {@code modifiedPerFlush} users, all in a transaction rolled back at the end of the iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class EnhancedFlushBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( EnhancedFlushBenchmark.class );
+
+	@Param({ "100000" })
+	private int userCount;
+
+	@Param({ "1000" })
+	private int modifiedPerFlush;
+
+	private JPAUnitTestCase template;
+
+	private Session session;
+
+	private List<User> users;
+
+	private int flushes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+	}
+
+	@Setup(Level.Iteration)
+	public void loadUsers() {
+		long heapBefore = HeapUsage.usedAfterGc();
+
+		session = template.getEntityManagerFactory().createEntityManager().unwrap( Session.class );
+		// Only the persistence context should be measured, not the second-level cache
+		session.setCacheMode( CacheMode.IGNORE );
+		session.getTransaction().begin();
+		users = session.createQuery( "SELECT u FROM User u", User.class ).getResultList();
+
+		long retained = HeapUsage.usedAfterGc() - heapBefore;
+		int managedEntities = session.unwrap( SessionImplementor.class )
+				.getPersistenceContextInternal()
+				.getNumberOfManagedEntities();
+		LOG.infof( "%s entities: %d users, %d managed entities, %d bytes retained per managed entity",
+				ManagedEntity.class.isAssignableFrom( User.class ) ? "Enhanced" : "Unenhanced",
+				users.size(),
+				managedEntities,
+				retained / Math.max( 1, managedEntities ) );
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeSession() {
+		session.getTransaction().rollback();
+		session.close();
+		users = null;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public void flushUnchanged() {
+		session.flush();
+	}
+
+	@Benchmark
+	public void flushModified() {
+		int offset = ( flushes++ * modifiedPerFlush ) % users.size();
+		for ( int i = 0; i < modifiedPerFlush; i++ ) {
+			User user = users.get( ( offset + i ) % users.size() );
+			user.setName( UserDataSet.nameOf( offset + i ) + "-" + flushes );
+		}
+		session.flush();
+	}
+}
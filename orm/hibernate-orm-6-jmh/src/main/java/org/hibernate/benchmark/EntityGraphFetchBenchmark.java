@@ -0,0 +1,94 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the two "user-entity-graph" finders of {@link JPAUnitTestCase}: lookup by id applies the graph as a
+ * fetch graph, lookup by name applies it as a load graph on a JPQL query.
+ * <p>
+ * Each finder is measured twice, once for throughput (ops/s) and once as a latency distribution (p50 to p99.99).
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class EntityGraphFetchBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int userCount;
+
+	@Param({ "0", "4", "16" })
+	private int skillsPerUser;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, skillsPerUser, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		// Closing drops the schema, which is much cheaper than deleting millions of rows first
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public User fetchGraphByIdThroughput() {
+		return template.findUserByIdUsingEntityGraph( randomId() );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public User fetchGraphByIdLatency() {
+		return template.findUserByIdUsingEntityGraph( randomId() );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public User loadGraphByNameThroughput() {
+		return template.findUserByNameUsingEntityGraph( randomName() );
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public User loadGraphByNameLatency() {
+		return template.findUserByNameUsingEntityGraph( randomName() );
+	}
+
+	private long randomId() {
+		return firstId + ThreadLocalRandom.current().nextInt( userCount );
+	}
+
+	private String randomName() {
+		return UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( userCount ) );
+	}
+}
@@ -0,0 +1,24 @@
+package org.hibernate.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH result of full exports: {@code users} is normalized by time, so reported as users per second.
+ *
+ * @see PeakHeap
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ExportCounters {
+
+	public long users;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		users = 0;
+	}
+}
@@ -0,0 +1,25 @@
+package org.hibernate.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures the heap retained by a data structure, as the difference of the used heap after full collections: call
+ * {@link #usedAfterGc()} before building it and once more while it is still reachable.
+ * <p>
+ * {@code System.gc()} is only a request, so this is an estimate, good enough to compare orders of magnitude per
+ * entity over thousands of entities.
+ */
+public final class HeapUsage {
+
+	private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+	private HeapUsage() {
+	}
+
+	public static long usedAfterGc() {
+		System.gc();
+		System.gc();
+		return MEMORY.getHeapMemoryUsage().getUsed();
+	}
+}
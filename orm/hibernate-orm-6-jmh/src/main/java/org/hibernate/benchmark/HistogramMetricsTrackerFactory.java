@@ -0,0 +1,131 @@
+package org.hibernate.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Records how long each thread waited for a HikariCP connection in an HdrHistogram, so that contention on the pool
+ * shows up as percentiles rather than as an average.
+ * <p>
+ * Hand an instance to {@code HikariConfig.setMetricsTrackerFactory}, then look up the metrics of each pool of that
+ * configuration with {@link #forPool(String)}.
+ */
+public class HistogramMetricsTrackerFactory implements MetricsTrackerFactory {
+
+	private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+
+	public PoolMetrics forPool(String poolName) {
+		PoolMetrics metrics = pools.get( poolName );
+		if ( metrics == null ) {
+			throw new IllegalStateException( "No metrics were recorded for pool " + poolName
+					+ ", was it configured with this factory?" );
+		}
+		return metrics;
+	}
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		PoolMetrics metrics = new PoolMetrics( poolName, poolStats );
+		pools.put( poolName, metrics );
+		return metrics;
+	}
+
+	public class PoolMetrics implements IMetricsTracker {
+
+		private final String poolName;
+
+		private final PoolStats poolStats;
+
+		// Auto-resizing, so that a pathological wait is recorded rather than rejected
+		private final Histogram acquisitionNanos = new ConcurrentHistogram( 3 );
+
+		private final Histogram usageMillis = new ConcurrentHistogram( 3 );
+
+		private final LongAdder timeouts = new LongAdder();
+
+		private PoolMetrics(String poolName, PoolStats poolStats) {
+			this.poolName = poolName;
+			this.poolStats = poolStats;
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			acquisitionNanos.recordValue( elapsedAcquiredNanos );
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			usageMillis.recordValue( elapsedBorrowedMillis );
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			timeouts.increment();
+		}
+
+		@Override
+		public void close() {
+			pools.remove( poolName, this );
+		}
+
+		/**
+		 * @return the time spent waiting for a connection, in nanoseconds
+		 */
+		public Histogram getAcquisitionNanos() {
+			return acquisitionNanos;
+		}
+
+		/**
+		 * @return the time connections were held before being handed back, in milliseconds
+		 */
+		public Histogram getUsageMillis() {
+			return usageMillis;
+		}
+
+		/**
+		 * @return the number of threads that gave up waiting for a connection
+		 */
+		public long getTimeoutCount() {
+			return timeouts.sum();
+		}
+
+		/**
+		 * @return the number of threads currently waiting for a connection
+		 */
+		public int getPendingThreads() {
+			return poolStats.getPendingThreads();
+		}
+
+		public void reset() {
+			acquisitionNanos.reset();
+			usageMillis.reset();
+			timeouts.reset();
+		}
+
+		@Override
+		public String toString() {
+			return String.format( "%s: %d acquisitions, p50=%dus p99=%dus p99.9=%dus max=%dus, %d timeouts, %d of %d connections active",
+					poolName,
+					acquisitionNanos.getTotalCount(),
+					micros( acquisitionNanos.getValueAtPercentile( 50 ) ),
+					micros( acquisitionNanos.getValueAtPercentile( 99 ) ),
+					micros( acquisitionNanos.getValueAtPercentile( 99.9 ) ),
+					micros( acquisitionNanos.getMaxValue() ),
+					getTimeoutCount(),
+					poolStats.getActiveConnections(),
+					poolStats.getTotalConnections() );
+		}
+
+		private long micros(long nanos) {
+			return TimeUnit.NANOSECONDS.toMicros( nanos );
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The entity-graph finders against growing tables, with the {@code @Index} definitions of the entities, or with those
+ * indexes dropped after the schema is generated.
+ * <p>
+ * Without {@code idx_users_user_name}, the name lookup scans the users table.  The detail and skills of a user are
+ * still found through the index H2 creates for each foreign key, so dropping the composite indexes only costs the
+ * filtering of the {@code @Where} columns.  The second-level cache is turned off, so that every call reaches the
+ * database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class IndexBenchmark {
+
+	private static final String[] INDEXES = {
+			"idx_users_user_name",
+			"idx_user_details_user_id_is_active",
+			"idx_user_skills_user_id_has_deleted"
+	};
+
+	@Param({ "10000", "100000", "1000000" })
+	private int userCount;
+
+	@Param({ "true", "false" })
+	private boolean indexed;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		if ( !indexed ) {
+			EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+			entityManager.getTransaction().begin();
+			for ( String index : INDEXES ) {
+				entityManager.createNativeQuery( "DROP INDEX " + index ).executeUpdate();
+			}
+			entityManager.getTransaction().commit();
+			entityManager.close();
+		}
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public User findByName() {
+		return template.findUserByNameUsingEntityGraph(
+				UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( userCount ) ) );
+	}
+
+	@Benchmark
+	public User findById() {
+		return template.findUserByIdUsingEntityGraph( firstId + ThreadLocalRandom.current().nextInt( userCount ) );
+	}
+}
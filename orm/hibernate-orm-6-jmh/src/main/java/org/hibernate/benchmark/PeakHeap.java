@@ -0,0 +1,49 @@
+package org.hibernate.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH result: the highest heap usage seen during the iteration, in megabytes.
+ * <p>
+ * This is the sum of the peaks of every heap pool, which may not have been reached at the same time: an upper bound,
+ * garbage and the in-memory database included.  Compare it between parameters rather than read it as a live set, and
+ * run with {@code -gc true} for JMH to collect the garbage of the previous iteration before the peaks are reset.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class PeakHeap {
+
+	private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans()
+			.stream()
+			.filter( pool -> pool.getType() == MemoryType.HEAP )
+			.collect( Collectors.toList() );
+
+	public double peakHeapMb;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		HEAP_POOLS.forEach( MemoryPoolMXBean::resetPeakUsage );
+		peakHeapMb = 0;
+	}
+
+	/**
+	 * Samples the pool peaks: call it after each operation, the counters are only read when the iteration ends.
+	 */
+	public void sample() {
+		long peak = 0;
+		for ( MemoryPoolMXBean pool : HEAP_POOLS ) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		peakHeapMb = Math.max( peakHeapMb, peak / ( 1024.0 * 1024.0 ) );
+	}
+}
@@ -0,0 +1,100 @@
+package org.hibernate.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.bugs.projection.UserSummary;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The entity-graph finders of {@link JPAUnitTestCase} against the {@link UserSummary} projections, which read the
+ * same data without creating any entity.  Compare the time per operation and {@code gc.alloc.rate.norm}, for a single
+ * user and for a page of random users.
+ * <p>
+ * The second-level cache is turned off, as the projections never use it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ProjectionBenchmark {
+
+	@Param({ "100000" })
+	private int userCount;
+
+	@Param({ "4", "16" })
+	private int skillsPerUser;
+
+	@Param({ "100" })
+	private int pageSize;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	private List<Long> page;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, skillsPerUser, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@Setup(Level.Iteration)
+	public void nextPage() {
+		page = new ArrayList<>( pageSize );
+		for ( int i = 0; i < pageSize; i++ ) {
+			page.add( firstId + ThreadLocalRandom.current().nextInt( userCount ) );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public User entityGraphByName() {
+		return template.findUserByNameUsingEntityGraph( randomName() );
+	}
+
+	@Benchmark
+	public UserSummary projectionByName() {
+		return template.findUserSummaryByName( randomName() );
+	}
+
+	@Benchmark
+	public List<User> entityGraphPage() {
+		return template.findUsersByIdsUsingEntityGraph( page );
+	}
+
+	@Benchmark
+	public List<UserSummary> projectionPage() {
+		return template.findUserSummariesByIds( page );
+	}
+
+	private String randomName() {
+		return UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( userCount ) );
+	}
+}
@@ -0,0 +1,135 @@
+package org.hibernate.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.bugs.query.QueryPlanCacheMetrics;
+import org.hibernate.bugs.query.QueryPlanWarmUp;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.entity.User;
+import org.hibernate.query.Query;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * What compiling the HQL of the user lookups costs, on the first lookup after bootstrap and in steady state.
+ * <p>
+ * {@code firstLookup} bootstraps a new factory before each invocation and times the first
+ * {@code findUserByNameUsingEntityGraph} only.  The named queries are compiled at bootstrap by
+ * {@link QueryPlanWarmUp}, by the startup check of Hibernate, which also validates them, or not at all.  Each
+ * invocation logs how long the bootstrap took, so that the time moved from the first lookup to the bootstrap can be
+ * compared.
+ * <p>
+ * {@code lookup} and {@code createNamedQuery} run against a single factory, with the query plan cache on or off: the
+ * difference is the parsing that the cache saves on every call, once the first one is paid for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class QueryPlanWarmUpBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( QueryPlanWarmUpBenchmark.class );
+
+	@State(Scope.Thread)
+	public static class FreshFactory {
+
+		@Param({ "NONE", "WARM_UP", "STARTUP_CHECK" })
+		private String compilation;
+
+		private JPAUnitTestCase template;
+
+		private long bootstrapNanos;
+
+		@Setup(Level.Invocation)
+		public void bootstrap() {
+			Map<String, Object> settings = BenchmarkSettings.quiet();
+			settings.put( AvailableSettings.QUERY_STARTUP_CHECKING, String.valueOf( compilation.equals( "STARTUP_CHECK" ) ) );
+			settings.put( QueryPlanWarmUp.ENABLED, String.valueOf( compilation.equals( "WARM_UP" ) ) );
+
+			long start = System.nanoTime();
+			template = new JPAUnitTestCase();
+			template.init( settings );
+			bootstrapNanos = System.nanoTime() - start;
+
+			UserDataSet.seed( template.getEntityManagerFactory(), 1, 4, 2 );
+		}
+
+		@TearDown(Level.Invocation)
+		public void close() {
+			LOG.infof( "Bootstrap in %d ms (named queries compiled by %s)",
+					TimeUnit.NANOSECONDS.toMillis( bootstrapNanos ),
+					compilation );
+			template.getEntityManagerFactory().close();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SharedFactory {
+
+		@Param({ "true", "false" })
+		private boolean planCache;
+
+		@Param({ "10000" })
+		private int userCount;
+
+		private JPAUnitTestCase template;
+
+		private Session session;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Map<String, Object> settings = BenchmarkSettings.quiet();
+			settings.put( "hibernate.query.plan_cache_enabled", String.valueOf( planCache ) );
+
+			template = new JPAUnitTestCase();
+			template.init( settings );
+
+			UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+			session = template.getEntityManagerFactory().createEntityManager().unwrap( Session.class );
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			LOG.info( QueryPlanCacheMetrics.of( template.getEntityManagerFactory() ) );
+			session.close();
+			template.getEntityManagerFactory().close();
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 10)
+	@Measurement(iterations = 30)
+	public User firstLookup(FreshFactory factory) {
+		return factory.template.findUserByNameUsingEntityGraph( UserDataSet.nameOf( 0 ) );
+	}
+
+	@Benchmark
+	public User lookup(SharedFactory factory) {
+		String name = UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( factory.userCount ) );
+		return factory.template.findUserByNameUsingEntityGraph( name );
+	}
+
+	@Benchmark
+	public Query<User> createNamedQuery(SharedFactory factory) {
+		return factory.session.createNamedQuery( User.FIND_BY_NAME, User.class );
+	}
+}
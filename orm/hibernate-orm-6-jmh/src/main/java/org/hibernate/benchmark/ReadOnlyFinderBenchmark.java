@@ -0,0 +1,105 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the entity-graph finders of {@link JPAUnitTestCase} with their read-only variants, which neither keep
+ * snapshots of the loaded state nor flush on commit.
+ * <p>
+ * A single user per call hardly shows the snapshots, so each iteration also starts by loading {@code pageSize} users
+ * through the same finder, one after the other, and logs how long the whole page took, the commit of each call
+ * included: the flush time that read-only sessions avoid adds up over the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReadOnlyFinderBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( ReadOnlyFinderBenchmark.class );
+
+	public enum Access {
+		READ_WRITE,
+		READ_ONLY
+	}
+
+	@Param({ "READ_WRITE", "READ_ONLY" })
+	private Access access;
+
+	@Param({ "100000" })
+	private int userCount;
+
+	@Param({ "10000" })
+	private int pageSize;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@Setup(Level.Iteration)
+	public void measurePage() {
+		int found = 0;
+		long start = System.nanoTime();
+		for ( long id = firstId; id < firstId + pageSize; id++ ) {
+			if ( find( id ) != null ) {
+				found++;
+			}
+		}
+		long pageNanos = System.nanoTime() - start;
+
+		LOG.infof( "%s: %d users loaded in %d ms", access, found, TimeUnit.NANOSECONDS.toMillis( pageNanos ) );
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public User findById() {
+		return find( firstId + ThreadLocalRandom.current().nextInt( userCount ) );
+	}
+
+	@Benchmark
+	public User findByName() {
+		String name = UserDataSet.nameOf( ThreadLocalRandom.current().nextInt( userCount ) );
+		return access == Access.READ_ONLY
+				? template.findReadOnlyUserByNameUsingEntityGraph( name )
+				: template.findUserByNameUsingEntityGraph( name );
+	}
+
+	private User find(long id) {
+		return access == Access.READ_ONLY
+				? template.findReadOnlyUserByIdUsingEntityGraph( id )
+				: template.findUserByIdUsingEntityGraph( id );
+	}
+}
@@ -0,0 +1,70 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full exports of the {@code users} table with {@link JPAUnitTestCase#forEachUserUsingEntityGraph}: every operation
+ * walks all the users, so the primary result is in exports per minute, {@code users} in users per second.
+ * <p>
+ * {@code peakHeapMb} should not depend on the number of users, only on the window size: the seeded in-memory database
+ * itself is part of it, so compare it across window sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 1, time = 30)
+@Measurement(iterations = 3, time = 30)
+public class ScrollExportBenchmark {
+
+	@Param({ "1000000" })
+	private int userCount;
+
+	@Param({ "4" })
+	private int skillsPerUser;
+
+	@Param({ "100", "1000" })
+	private int windowSize;
+
+	@Param({ "100", "1000" })
+	private int fetchSize;
+
+	private JPAUnitTestCase template;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		template = new JPAUnitTestCase();
+		template.init( BenchmarkSettings.quiet() );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, skillsPerUser, 2 );
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public long exportAllUsers(ExportCounters counters, PeakHeap peakHeap, Blackhole blackhole) {
+		long exported = template.forEachUserUsingEntityGraph( windowSize, fetchSize, blackhole::consume );
+		counters.users += exported;
+		peakHeap.sample();
+		return exported;
+	}
+}
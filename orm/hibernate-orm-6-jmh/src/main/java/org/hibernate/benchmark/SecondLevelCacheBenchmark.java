@@ -0,0 +1,72 @@
+package org.hibernate.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hot reads through {@link JPAUnitTestCase#findUserByIdUsingEntityGraph(Long)}: a small working set of users is read
+ * over and over, with the second-level cache enabled or disabled.  The {@link CacheCounters} report the cache hits,
+ * misses and puts of each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SecondLevelCacheBenchmark {
+
+	@Param({ "true", "false" })
+	private boolean secondLevelCache;
+
+	@Param({ "100000" })
+	private int userCount;
+
+	@Param({ "1000" })
+	private int hotUserCount;
+
+	private JPAUnitTestCase template;
+
+	private long firstId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Map<String, Object> settings = BenchmarkSettings.quiet();
+		settings.put( "hibernate.cache.use_second_level_cache", String.valueOf( secondLevelCache ) );
+		settings.put( "hibernate.generate_statistics", "true" );
+
+		template = new JPAUnitTestCase();
+		template.init( settings );
+
+		UserDataSet.seed( template.getEntityManagerFactory(), userCount, 4, 2 );
+		firstId = UserDataSet.idRange( template.getEntityManagerFactory() )[0];
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		template.getEntityManagerFactory().close();
+	}
+
+	@Benchmark
+	public User findHotUserById(CacheCounters counters) {
+		long id = firstId + ThreadLocalRandom.current().nextInt( hotUserCount );
+		return counters.record( template.getEntityManagerFactory(), () -> template.findUserByIdUsingEntityGraph( id ) );
+	}
+}
@@ -0,0 +1,69 @@
+package org.hibernate.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.bugs.cost.OperationCost;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary JMH results counting the database work done by the measured operations, as recorded by
+ * {@link OperationCost}.  Counters are totals per iteration: divide them by {@code operations} for per-operation
+ * figures.
+ * <p>
+ * Requires the factory being measured to be bootstrapped with {@link BenchmarkSettings#counted()}.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class StatementCounters {
+
+	public long operations;
+
+	public long statements;
+
+	public long transactions;
+
+	public long rows;
+
+	public long entities;
+
+	public long resultSetMicros;
+
+	@Setup(Level.Iteration)
+	public void reset() {
+		operations = 0;
+		statements = 0;
+		transactions = 0;
+		rows = 0;
+		entities = 0;
+		resultSetMicros = 0;
+	}
+
+	// Not public: JMH would take it for a counter
+	<T> T record(EntityManagerFactory entityManagerFactory, Supplier<T> operation) {
+		Statistics statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+		long transactionsBefore = statistics.getTransactionCount();
+
+		T result;
+		OperationCost cost;
+		try ( OperationCost.Recording recording = OperationCost.start( entityManagerFactory ) ) {
+			result = operation.get();
+			cost = recording.stop();
+		}
+
+		operations++;
+		statements += cost.getStatementCount();
+		transactions += statistics.getTransactionCount() - transactionsBefore;
+		rows += cost.getRows();
+		entities += cost.getEntitiesLoaded();
+		resultSetMicros += TimeUnit.NANOSECONDS.toMicros( cost.getResultSetNanos() );
+		return result;
+	}
+}
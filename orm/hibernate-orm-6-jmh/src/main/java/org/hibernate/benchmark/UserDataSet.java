@@ -0,0 +1,78 @@
+package org.hibernate.benchmark;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+
+/**
+ * Seeds the users, user_details and user_skills tables with a synthetic data set shaped like the
+ * JPAUnitTestCase scenarios: every user has some inactive detail history, one active detail and a mix of live
+ * and deleted skills.
+ * <p>
+ * Rows are written through plain JDBC so that seeding a million users takes seconds rather than minutes.
+ */
+public final class UserDataSet {
+
+	public static final String NAME_PREFIX = "user-";
+
+	private static final int INSERT_BATCH_SIZE = 1_000;
+
+	private UserDataSet() {
+	}
+
+	public static String nameOf(int index) {
+		return NAME_PREFIX + index;
+	}
+
+	public static void seed(EntityManagerFactory entityManagerFactory, int userCount, int skillsPerUser,
+			int inactiveDetailsPerUser) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		entityManager.unwrap( Session.class ).doWork( connection -> {
+			try ( PreparedStatement insert = connection.prepareStatement( "INSERT INTO users (user_name) VALUES (?)" ) ) {
+				for ( int i = 0; i < userCount; i++ ) {
+					insert.setString( 1, nameOf( i ) );
+					insert.addBatch();
+					if ( ( i + 1 ) % INSERT_BATCH_SIZE == 0 ) {
+						insert.executeBatch();
+					}
+				}
+				insert.executeBatch();
+			}
+
+			try ( Statement statement = connection.createStatement() ) {
+				for ( int i = 0; i < inactiveDetailsPerUser; i++ ) {
+					statement.executeUpdate( "INSERT INTO user_details (city, is_active, user_id) "
+							+ "SELECT 'history-" + i + "', false, user_id FROM users" );
+				}
+				statement.executeUpdate( "INSERT INTO user_details (city, is_active, user_id) "
+						+ "SELECT 'city-' || user_id, true, user_id FROM users" );
+
+				for ( int i = 0; i < skillsPerUser; i++ ) {
+					// Every fourth skill is soft-deleted, so the @Where filter always has rows to discard
+					statement.executeUpdate( "INSERT INTO user_skills (skill_name, has_deleted, user_id) "
+							+ "SELECT 'skill-" + i + "', " + ( i % 4 == 3 ) + ", user_id FROM users" );
+				}
+			}
+		} );
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	/**
+	 * @return the lowest and highest user ids, as seeded ids are contiguous
+	 */
+	public static long[] idRange(EntityManagerFactory entityManagerFactory) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		Object[] range = (Object[]) entityManager.createQuery( "SELECT min(u.id), max(u.id) FROM User u" )
+				.getSingleResult();
+		entityManager.close();
+
+		return new long[] { (Long) range[0], (Long) range[1] };
+	}
+}
@@ -0,0 +1,129 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.bugs.bootstrap.BootstrapCache;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link BootstrapCache} hands the same factory to the tests with the same configuration, reset to
+ * the state of a new one.  The cache is enabled for these tests only, whatever {@code hibernate.bootstrap.cache} says
+ * for the rest of the build.
+ */
+public class BootstrapCacheTest {
+
+	// For the reset of the statistics to show
+	private static final Map<String, Object> STATISTICS = Collections.singletonMap("hibernate.generate_statistics", "true");
+
+	private static String previousEnabled;
+
+	private JPAUnitTestCase template;
+
+	@BeforeClass
+	public static void enableCache() {
+		previousEnabled = System.setProperty(BootstrapCache.ENABLED, "true");
+	}
+
+	@AfterClass
+	public static void restoreCache() {
+		// The factories cached here stay open until the JVM exits, but no other test is handed them
+		if (previousEnabled == null) {
+			System.clearProperty(BootstrapCache.ENABLED);
+		}
+		else {
+			System.setProperty(BootstrapCache.ENABLED, previousEnabled);
+		}
+	}
+
+	@Before
+	public void init() {
+		template = new JPAUnitTestCase();
+		template.init(STATISTICS);
+	}
+
+	@After
+	public void destroy() {
+		if (template != null) {
+			template.destroy();
+		}
+	}
+
+	@Test
+	public void sameConfigurationReusesTheFactoryTest() {
+		// Given
+		EntityManagerFactory first = template.getEntityManagerFactory();
+		persistAndFindAlice();
+		template.destroy();
+
+		// When
+		template.init(STATISTICS);
+
+		// Then
+		EntityManagerFactory second = template.getEntityManagerFactory();
+		assertSame(first, second);
+		assertTrue(second.isOpen());
+		assertTrue(BootstrapCache.isCached(second));
+	}
+
+	@Test
+	public void reusedFactoryIsResetTest() {
+		// Given
+		Long aliceId = persistAndFindAlice();
+		template.destroy();
+
+		// When
+		template.init(STATISTICS);
+
+		// Then
+		EntityManagerFactory entityManagerFactory = template.getEntityManagerFactory();
+		assertFalse(entityManagerFactory.getCache().contains(User.class, aliceId));
+		assertEquals(0, entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getEntityLoadCount());
+
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		assertEquals(0L, entityManager.createQuery("SELECT count(u) FROM User u", Long.class).getSingleResult().longValue());
+		entityManager.close();
+	}
+
+	@Test
+	public void otherConfigurationGetsItsOwnFactoryTest() {
+		// Given
+		EntityManagerFactory defaults = template.getEntityManagerFactory();
+		JPAUnitTestCase other = new JPAUnitTestCase();
+
+		// When
+		other.init(Collections.singletonMap("hibernate.jdbc.fetch_size", "100"));
+
+		// Then
+		try {
+			assertNotSame(defaults, other.getEntityManagerFactory());
+			assertTrue(BootstrapCache.isCached(other.getEntityManagerFactory()));
+		}
+		finally {
+			other.destroy();
+		}
+	}
+
+	private Long persistAndFindAlice() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		Long aliceId = UserScenario.ALICE.persist(entityManager, "Alice").getId();
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		// By name: the lookup by id of a user without detail is the bug this template reproduces
+		assertNotNull(template.findUserByNameUsingEntityGraph("Alice"));
+		return aliceId;
+	}
+}
@@ -0,0 +1,85 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.bugs.load.BulkInsertResult;
+import org.hibernate.bugs.load.BulkSeeder;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Seeds users through the "templatePU-batched" persistence unit, whose sequence ids let Hibernate batch the inserts,
+ * and through "templatePU", whose IDENTITY ids do not.
+ * <p>
+ * Raise {@code -Dseed.users} to load millions of rows and compare the statements per second.
+ */
+public class BulkSeederTest {
+
+	private static final int USER_COUNT = Integer.getInteger("seed.users", 1000);
+
+	private JPAUnitTestCase template;
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void sequenceIdsAreBatchedTest() {
+		// Given
+		template = new JPAUnitTestCase();
+		template.init("templatePU-batched", new HashMap<>());
+
+		// When
+		BulkInsertResult result = new BulkSeeder(template.getEntityManagerFactory()).seed(USER_COUNT);
+
+		// Then
+		assertEquals(50, result.getBatchSizes().getMaxValue());
+		assertTrue(result.getBatchSizes().getMean() > 1);
+		assertTrue(result.getStatements() < result.getRows());
+
+		assertEquals(USER_COUNT, countUsers());
+
+		// Frank is the scenario the entity graph finders load as expected (see UserLoadTest)
+		User frank = template.findUserByNameUsingEntityGraph("Frank-5");
+		assertTrue(UserScenario.FRANK.matches(frank, "Frank-5"));
+	}
+
+	@Test
+	public void identityIdsAreNotBatchedTest() {
+		// Given
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("hibernate.connection.provider_class", CountingConnectionProvider.class.getName());
+		settings.put("hibernate.jdbc.batch_size", "50");
+		settings.put("hibernate.show_sql", "false");
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+
+		// When
+		BulkInsertResult result = new BulkSeeder(template.getEntityManagerFactory()).seed(USER_COUNT);
+
+		// Then
+		assertEquals(0, result.getBatchSizes().getTotalCount());
+		assertTrue(result.getStatements() >= result.getRows());
+
+		assertEquals(USER_COUNT, countUsers());
+	}
+
+	private long countUsers() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		try {
+			return entityManager.createQuery("SELECT count(u) FROM User u", Long.class).getSingleResult();
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.bugs.cost.OperationCost;
+import org.hibernate.bugs.cost.QueryBudget;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks what the {@code enhance} build profile changes: run with {@code mvn clean test -Penhance}, these tests are
+ * skipped otherwise.
+ */
+public class BytecodeEnhancementTest {
+
+	private JPAUnitTestCase template;
+
+	@Before
+	public void init() {
+		assumeTrue("The entities are not enhanced", ManagedEntity.class.isAssignableFrom(User.class));
+
+		Map<String, Object> settings = OperationCost.settings();
+		settings.put("hibernate.connection.provider_class", CountingConnectionProvider.class.getName());
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+	}
+
+	@After
+	public void destroy() {
+		if (template != null) {
+			template.destroy();
+		}
+	}
+
+	@Test
+	public void detailIsNotSelectedWithItsUserTest() {
+		// Given
+		persist(UserScenario.CHARLIE, UserScenario.DAVID, UserScenario.EVE);
+		template.getEntityManagerFactory().getCache().evictAll();
+
+		// When
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		List<User> users = QueryBudget.maxStatements(1).enforce(template.getEntityManagerFactory(),
+				() -> entityManager.createQuery("SELECT u FROM User u", User.class).getResultList());
+
+		// Then
+		assertEquals(3, users.size());
+		for (User user : users) {
+			assertFalse(Hibernate.isPropertyInitialized(user, "detail"));
+			assertNotNull(user.getDetail());
+		}
+		entityManager.close();
+	}
+
+	@Test
+	public void modifiedAttributesAreTrackedInLineTest() {
+		// Given
+		persist(UserScenario.FRANK);
+
+		// When
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		User frank = entityManager.createQuery("SELECT u FROM User u", User.class).getSingleResult();
+		frank.setName("Francis");
+
+		// Then
+		assertArrayEquals(new String[] {"name"}, ((SelfDirtinessTracker) frank).$$_hibernate_getDirtyAttributes());
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		assertNotNull(template.findUserByNameUsingEntityGraph("Francis"));
+	}
+
+	private void persist(UserScenario... scenarios) {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+
+		Arrays.stream(scenarios).forEach(scenario -> scenario.persist(entityManager, scenario.getName()));
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+}
@@ -0,0 +1,120 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.load.BulkInsertResult;
+import org.hibernate.bugs.load.CsvUserImporter;
+import org.hibernate.bugs.load.UserScenario;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Imports users from CSV files into the "templatePU-batched" persistence unit.
+ * <p>
+ * Raise {@code -Dimport.users} to import files of millions of rows, with the heap kept to the default.
+ */
+public class CsvUserImporterTest {
+
+	private static final int USER_COUNT = Integer.getInteger("import.users", 1000);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private JPAUnitTestCase template;
+
+	@Before
+	public void init() {
+		template = new JPAUnitTestCase();
+		template.init("templatePU-batched", new HashMap<>());
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void importScenariosInBatchesTest() throws IOException {
+		// Given
+		Path file = temporaryFolder.newFile("users.csv").toPath();
+		CsvUserImporter.writeScenarios(file, USER_COUNT);
+
+		// When
+		BulkInsertResult result = new CsvUserImporter(template.getEntityManagerFactory())
+				.batchSize(50)
+				.commitInterval(500)
+				.importFrom(file);
+
+		// Then
+		try (Stream<String> lines = Files.lines(file)) {
+			assertEquals(lines.count(), result.getRows());
+		}
+		assertEquals(USER_COUNT, result.getUsers());
+		assertEquals(USER_COUNT, countUsers());
+
+		assertEquals(50, result.getBatchSizes().getMaxValue());
+		assertTrue(result.getStatements() < result.getRows());
+
+		// Frank is the scenario the entity graph finders load as expected (see UserLoadTest)
+		assertTrue(UserScenario.FRANK.matches(template.findUserByNameUsingEntityGraph("Frank-5"), "Frank-5"));
+	}
+
+	@Test
+	public void detailWithoutUserIsRejectedTest() throws IOException {
+		// Given
+		Path file = temporaryFolder.newFile("orphan.csv").toPath();
+		Files.write(file, Arrays.asList("D,Paris,true", "U,Charlie"), StandardCharsets.UTF_8);
+
+		// When
+		try {
+			new CsvUserImporter(template.getEntityManagerFactory()).importFrom(file);
+			fail("The detail should have been rejected");
+		}
+		catch (IllegalArgumentException e) {
+			// Then
+			assertTrue(e.getMessage().startsWith("Malformed line 1"));
+		}
+		assertEquals(0, countUsers());
+	}
+
+	@Test
+	public void flagOtherThanTrueOrFalseIsRejectedTest() throws IOException {
+		// Given
+		Path file = temporaryFolder.newFile("flags.csv").toPath();
+		Files.write(file, Arrays.asList("U,Charlie", "D,Paris,true", "S,Java,yes"), StandardCharsets.UTF_8);
+
+		// When
+		try {
+			new CsvUserImporter(template.getEntityManagerFactory()).importFrom(file);
+			fail("The skill should have been rejected");
+		}
+		catch (IllegalArgumentException e) {
+			// Then
+			assertTrue(e.getMessage().startsWith("Malformed line 3"));
+			assertEquals("Expected true or false, was 'yes'", e.getCause().getMessage());
+		}
+		assertEquals(0, countUsers());
+	}
+
+	private long countUsers() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		try {
+			return entityManager.createQuery("SELECT count(u) FROM User u", Long.class).getSingleResult();
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+}
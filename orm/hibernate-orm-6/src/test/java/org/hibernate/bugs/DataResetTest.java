@@ -0,0 +1,159 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.bugs.reset.DataReset;
+import org.hibernate.bugs.reset.DeleteReset;
+import org.hibernate.bugs.reset.ResetWith;
+import org.hibernate.bugs.reset.RollbackReset;
+import org.hibernate.bugs.reset.SnapshotReset;
+import org.hibernate.bugs.reset.TruncateReset;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that each {@link DataReset} leaves the tables as the next test expects them: empty, or back to the baseline.
+ */
+public class DataResetTest {
+
+	private JPAUnitTestCase template;
+
+	@After
+	public void destroy() {
+		if (template != null) {
+			template.destroy();
+		}
+	}
+
+	@Test
+	public void deleteEmptiesTheTablesTest() {
+		// Given
+		init(JPAUnitTestCase.forTestClass(getClass()));
+		persist(UserScenario.DAVID, "David");
+
+		// When
+		new DeleteReset().reset(template.getEntityManagerFactory());
+
+		// Then
+		assertEquals(emptyList(), userNames());
+	}
+
+	@Test
+	public void truncateEmptiesTheTablesTest() {
+		// Given
+		init(new JPAUnitTestCase().resetWith(TruncateReset.class));
+		persist(UserScenario.DAVID, "David");
+
+		// When
+		new TruncateReset().reset(template.getEntityManagerFactory());
+
+		// Then
+		assertEquals(emptyList(), userNames());
+		assertEquals(0, countRows("user_details"));
+		assertEquals(0, countRows("user_skills"));
+	}
+
+	@Test
+	public void snapshotRestoresTheBaselineTest() {
+		// Given
+		init(JPAUnitTestCase.forTestClass(SnapshotTests.class));
+		persist(UserScenario.EVE, "Eve");
+		template.markBaseline();
+		persist(UserScenario.FRANK, "Frank");
+
+		// When
+		new SnapshotReset().reset(template.getEntityManagerFactory());
+
+		// Then
+		assertEquals(asList("Eve"), userNames());
+		assertEquals(UserScenario.EVE.getDetails().size(), countRows("user_details"));
+		assertEquals(UserScenario.EVE.getSkills().size(), countRows("user_skills"));
+
+		// And the ids restored do not collide with those of the next users
+		persist(UserScenario.FRANK, "Frank");
+		assertEquals(asList("Eve", "Frank"), userNames());
+	}
+
+	@Test
+	public void rollbackRestoresTheBaselineTest() {
+		// Given
+		init(new JPAUnitTestCase().resetWith(RollbackReset.class));
+		persist(UserScenario.EVE, "Eve");
+		template.markBaseline();
+		persist(UserScenario.FRANK, "Frank");
+
+		// When
+		new RollbackReset().reset(template.getEntityManagerFactory());
+
+		// Then
+		assertEquals(asList("Eve"), userNames());
+		assertEquals(UserScenario.EVE.getDetails().size(), countRows("user_details"));
+		assertEquals(UserScenario.EVE.getSkills().size(), countRows("user_skills"));
+	}
+
+	@Test
+	public void rollbackUndoesAFailedTransactionOnlyTest() {
+		// Given
+		init(new JPAUnitTestCase().resetWith(RollbackReset.class));
+		persist(UserScenario.EVE, "Eve");
+
+		// When
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		UserScenario.FRANK.persist(entityManager, "Frank");
+		entityManager.flush();
+		entityManager.getTransaction().rollback();
+		entityManager.close();
+
+		// Then
+		assertEquals(asList("Eve"), userNames());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void deleteHasNoBaselineTest() {
+		init(new JPAUnitTestCase());
+
+		template.markBaseline();
+	}
+
+	private void init(JPAUnitTestCase template) {
+		this.template = template;
+		template.init();
+	}
+
+	private void persist(UserScenario scenario, String name) {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		scenario.persist(entityManager, name);
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	private List<String> userNames() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		List<String> names = entityManager.createQuery("SELECT u.name FROM User u ORDER BY u.id", String.class)
+				.getResultList();
+		entityManager.close();
+		return names;
+	}
+
+	/**
+	 * Counts all the rows, unlike a query on UserDetail which only sees the active details.
+	 */
+	private int countRows(String table) {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		Number count = (Number) entityManager.createNativeQuery("SELECT count(*) FROM " + table).getSingleResult();
+		entityManager.close();
+		return count.intValue();
+	}
+
+	@ResetWith(SnapshotReset.class)
+	private static class SnapshotTests {
+	}
+}
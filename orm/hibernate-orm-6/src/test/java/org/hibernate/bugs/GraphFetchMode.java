@@ -0,0 +1,25 @@
+package org.hibernate.bugs;
+
+/**
+ * How the "user-entity-graph" finders of {@link JPAUnitTestCase} execute the graph.
+ */
+public enum GraphFetchMode {
+
+	/**
+	 * The detail and the skills are join fetched together with the users, in a single statement.  Each user then comes
+	 * back once per skill row, multiplied by the detail rows the join could not rule out.
+	 */
+	JOINED,
+
+	/**
+	 * The graph is split: the skills come from the "user-skills-graph", while the detail is join fetched by the query
+	 * itself, with a condition that keeps the active detail of each user, and lets the finders clear the detail of a user
+	 * without one.  A chunk of users costs a single statement, with a row per live skill of each user, not multiplied by
+	 * the history of its details.
+	 * <p>
+	 * The detail cannot be selected by its own statement keyed by the ids instead: without bytecode enhancement, the
+	 * inverse one-to-one of each user loaded without its detail is resolved by a select of its own, whatever the session
+	 * already holds.
+	 */
+	SPLIT
+}
@@ -1,16 +1,40 @@
 package org.hibernate.bugs;
 
 import jakarta.persistence.*;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.bugs.bootstrap.BootstrapCache;
+import org.hibernate.bugs.lazy.NPlusOneDetector;
+import org.hibernate.bugs.projection.UserSummary;
+import org.hibernate.bugs.projection.UserSummaryTransformer;
+import org.hibernate.bugs.reset.DataReset;
+import org.hibernate.bugs.reset.DeleteReset;
+import org.hibernate.bugs.reset.ResetWith;
 import org.hibernate.entity.User;
 import org.hibernate.entity.UserDetail;
 import org.hibernate.entity.UserSkill;
+import org.hibernate.jpa.HibernateHints;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.*;
 
 /**
@@ -18,29 +42,134 @@ import static org.junit.Assert.*;
  */
 public class JPAUnitTestCase {
 
+	/**
+	 * How many ids {@link #findUsersByIdsUsingEntityGraph(Collection)} binds to a single {@code IN} list.
+	 */
+	public static final int DEFAULT_ID_CHUNK_SIZE = 100;
+
 	private EntityManagerFactory entityManagerFactory;
 
+	private DataReset dataReset = dataResetOf( getClass() );
+
+	/**
+	 * A template for the tests of another class, which resets the records with the {@link DataReset} selected by the
+	 * {@link ResetWith} annotation of that class, if any.
+	 */
+	public static JPAUnitTestCase forTestClass(Class<?> testClass) {
+		JPAUnitTestCase template = new JPAUnitTestCase();
+		template.dataReset = dataResetOf( testClass );
+		return template;
+	}
+
+	private static DataReset dataResetOf(Class<?> testClass) {
+		ResetWith resetWith = testClass.getAnnotation( ResetWith.class );
+		return resetWith == null ? new DeleteReset() : newDataReset( resetWith.value() );
+	}
+
+	private static DataReset newDataReset(Class<? extends DataReset> type) {
+		try {
+			return type.getConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException( "Cannot instantiate " + type.getName(), e );
+		}
+	}
+
+	/**
+	 * Resets the records with another strategy than the one of the test class; to be called before {@link #init()}.
+	 */
+	public JPAUnitTestCase resetWith(Class<? extends DataReset> type) {
+		dataReset = newDataReset( type );
+		return this;
+	}
+
 	@Before
 	public void init() {
-		entityManagerFactory = Persistence.createEntityManagerFactory( "templatePU" );
+		init( Collections.emptyMap() );
+	}
+
+	/**
+	 * Bootstraps the "templatePU" persistence unit, overriding its settings with the given properties.
+	 */
+	public void init(Map<String, ?> properties) {
+		init( "templatePU", properties );
+	}
+
+	/**
+	 * Bootstraps another persistence unit of {@code META-INF/persistence.xml}, such as "templatePU-batched".
+	 * <p>
+	 * With the {@link BootstrapCache} enabled, the factory created for the same persistence unit and properties by a
+	 * previous test is reused.
+	 */
+	public void init(String persistenceUnitName, Map<String, ?> properties) {
+		Map<String, Object> settings = new HashMap<>( properties );
+		settings.putAll( dataReset.settings() );
+		entityManagerFactory = BootstrapCache.entityManagerFactory( persistenceUnitName, settings );
+	}
+
+	/**
+	 * Makes the records persisted so far the baseline that each test starts from, instead of empty tables.
+	 *
+	 * @throws UnsupportedOperationException if the {@link DataReset} of the test class cannot restore a baseline
+	 */
+	public void markBaseline() {
+		dataReset.markBaseline( entityManagerFactory );
 	}
 
 	@After
 	public void destroy() {
-		deleteAllRecords();
-		entityManagerFactory.close();
+		dataReset.reset( entityManagerFactory );
+		if ( BootstrapCache.isCached( entityManagerFactory ) ) {
+			resetFactoryState();
+		}
+		else {
+			entityManagerFactory.close();
+		}
+	}
+
+	/**
+	 * Forgets what the previous test left in a factory kept open by the {@link BootstrapCache}, besides the records:
+	 * the second-level cache, the statistics and the N+1 selects reported.
+	 */
+	private void resetFactoryState() {
+		entityManagerFactory.getCache().evictAll();
+		entityManagerFactory.unwrap( SessionFactory.class ).getStatistics().clear();
+		NPlusOneDetector detector = NPlusOneDetector.from( entityManagerFactory );
+		if ( detector != null ) {
+			detector.clear();
+		}
+	}
+
+	public EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
 	}
 
 	public User findUserByIdUsingEntityGraph(Long id) {
+		return findUserByIdUsingEntityGraph(id, GraphFetchMode.JOINED);
+	}
+
+	public User findUserByIdUsingEntityGraph(Long id, GraphFetchMode mode) {
 		EntityManager entityManager = entityManagerFactory.createEntityManager();
 		entityManager.getTransaction().begin();
 
-		EntityGraph<?> entityGraph = entityManager.getEntityGraph("user-entity-graph");
-
-		Map<String, Object> properties = new HashMap<>();
-		properties.put("jakarta.persistence.fetchgraph", entityGraph);
-
-		User user = entityManager.find(User.class, id, properties);
+		User user;
+		if (mode == GraphFetchMode.SPLIT) {
+			// find() would put the @Where clause of the skills in the WHERE clause, losing the users without live skills
+			Map<Long, User> usersById = new HashMap<>();
+			findChunkUsingEntityGraph(entityManager, Collections.singletonList(id), mode, usersById);
+			user = usersById.get(id);
+		}
+		else {
+			Map<String, Object> properties = new HashMap<>();
+			properties.put("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(graphName(mode)));
+
+			user = entityManager.find(User.class, id, properties);
+
+			if (user != null && !Hibernate.isInitialized(user.getSkills())) {
+				// A user served from the second-level cache does not have the graph applied: take the skills from the cache too
+				Hibernate.initialize(user.getSkills());
+			}
+		}
 
 		entityManager.getTransaction().commit();
 		entityManager.close();
@@ -49,12 +178,16 @@ public class JPAUnitTestCase {
 	}
 
 	public User findUserByNameUsingEntityGraph(String name) {
+		return findUserByNameUsingEntityGraph(name, GraphFetchMode.JOINED);
+	}
+
+	public User findUserByNameUsingEntityGraph(String name, GraphFetchMode mode) {
 		EntityManager entityManager = entityManagerFactory.createEntityManager();
 		entityManager.getTransaction().begin();
 
-		EntityGraph<?> entityGraph = entityManager.getEntityGraph("user-entity-graph");
+		EntityGraph<?> entityGraph = entityManager.getEntityGraph(graphName(mode));
 
-		TypedQuery<User> query = entityManager.createQuery("SELECT u FROM User u WHERE u.name = :name", User.class)
+		TypedQuery<User> query = entityManager.createNamedQuery(User.FIND_BY_NAME, User.class)
 				.setParameter("name", name)
 				.setHint("jakarta.persistence.loadgraph", entityGraph);
 
@@ -66,16 +199,257 @@ public class JPAUnitTestCase {
 		return user;
 	}
 
-	public void deleteAllRecords() {
+	/**
+	 * Same as {@link #findUserByIdUsingEntityGraph(Long)}, through a read-only session that is never flushed: the loaded
+	 * entities keep no snapshot of their state, and committing has nothing to dirty-check.
+	 */
+	public User findReadOnlyUserByIdUsingEntityGraph(Long id) {
+		EntityManager entityManager = createReadOnlyEntityManager();
+		entityManager.getTransaction().begin();
+
+		Map<String, Object> properties = new HashMap<>();
+		properties.put("jakarta.persistence.fetchgraph", entityManager.getEntityGraph("user-entity-graph"));
+
+		User user = entityManager.find(User.class, id, properties);
+
+		if (user != null && !Hibernate.isInitialized(user.getSkills())) {
+			// As above, a user served from the second-level cache comes without its skills
+			Hibernate.initialize(user.getSkills());
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return user;
+	}
+
+	/**
+	 * Same as {@link #findUserByNameUsingEntityGraph(String)}, through a read-only session and query that are never
+	 * flushed.
+	 */
+	public User findReadOnlyUserByNameUsingEntityGraph(String name) {
+		EntityManager entityManager = createReadOnlyEntityManager();
+		entityManager.getTransaction().begin();
+
+		User user = entityManager.createNamedQuery(User.FIND_BY_NAME, User.class)
+				.setParameter("name", name)
+				.setHint("jakarta.persistence.loadgraph", entityManager.getEntityGraph("user-entity-graph"))
+				.setHint(HibernateHints.HINT_READ_ONLY, true)
+				.getSingleResult();
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return user;
+	}
+
+	private EntityManager createReadOnlyEntityManager() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		Session session = entityManager.unwrap(Session.class);
+		session.setDefaultReadOnly(true);
+		session.setHibernateFlushMode(FlushMode.MANUAL);
+		return entityManager;
+	}
+
+	/**
+	 * Projects a user to a {@link UserSummary} with a single query, without creating any entity.
+	 *
+	 * @return the summary, or {@code null} if there is no such user
+	 */
+	public UserSummary findUserSummaryById(Long id) {
+		return findUserSummary("WHERE u.id = :id", "id", id);
+	}
+
+	/**
+	 * Same as {@link #findUserSummaryById(Long)}, for the user named {@code name}.
+	 */
+	public UserSummary findUserSummaryByName(String name) {
+		return findUserSummary("WHERE u.name = :name", "name", name);
+	}
+
+	/**
+	 * Projects many users in a single transaction, with one query per chunk of {@link #DEFAULT_ID_CHUNK_SIZE} ids.
+	 *
+	 * @return the summaries in the order of {@code ids}, with {@code null} for ids that do not exist
+	 */
+	public List<UserSummary> findUserSummariesByIds(Collection<Long> ids) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		Map<Long, UserSummary> summariesById = new HashMap<>();
+
+		for (int from = 0; from < distinctIds.size(); from += DEFAULT_ID_CHUNK_SIZE) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + DEFAULT_ID_CHUNK_SIZE, distinctIds.size()));
+			findUserSummaries(entityManager, "WHERE u.id IN :ids", "ids", chunk)
+					.forEach(summary -> summariesById.put(summary.getId(), summary));
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		List<UserSummary> summaries = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			summaries.add(summariesById.get(id));
+		}
+		return summaries;
+	}
+
+	private UserSummary findUserSummary(String where, String parameter, Object value) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		List<UserSummary> summaries = findUserSummaries(entityManager, where, parameter, value);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return summaries.isEmpty() ? null : summaries.get(0);
+	}
+
+	private static List<UserSummary> findUserSummaries(EntityManager entityManager, String where, String parameter,
+			Object value) {
+		return entityManager.unwrap(Session.class)
+				.createQuery(UserSummaryTransformer.SELECT + " " + where + UserSummaryTransformer.ORDER_BY, Object[].class)
+				.setParameter(parameter, value)
+				.setTupleTransformer(UserSummaryTransformer.INSTANCE)
+				.setResultListTransformer(UserSummaryTransformer.INSTANCE)
+				.getResultList();
+	}
+
+	public List<User> findUsersByIdsUsingEntityGraph(Collection<Long> ids) {
+		return findUsersByIdsUsingEntityGraph(ids, DEFAULT_ID_CHUNK_SIZE);
+	}
+
+	/**
+	 * Loads many users in a single transaction, issuing one "user-entity-graph" query per chunk of {@code chunkSize} ids
+	 * instead of one find per id.
+	 *
+	 * @return the users in the order of {@code ids}, with {@code null} for ids that do not exist
+	 */
+	public List<User> findUsersByIdsUsingEntityGraph(Collection<Long> ids, int chunkSize) {
+		return findUsersByIdsUsingEntityGraph(ids, chunkSize, GraphFetchMode.JOINED);
+	}
+
+	public List<User> findUsersByIdsUsingEntityGraph(Collection<Long> ids, int chunkSize, GraphFetchMode mode) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive, was " + chunkSize);
+		}
+
 		EntityManager entityManager = entityManagerFactory.createEntityManager();
 		entityManager.getTransaction().begin();
 
-		entityManager.createNativeQuery("DELETE FROM user_skills").executeUpdate();
-		entityManager.createNativeQuery("DELETE FROM user_details").executeUpdate();
-		entityManager.createNativeQuery("DELETE FROM users").executeUpdate();
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		Map<Long, User> usersById = new HashMap<>();
+
+		for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+			findChunkUsingEntityGraph(entityManager, chunk, mode, usersById);
+		}
 
 		entityManager.getTransaction().commit();
 		entityManager.close();
+
+		List<User> users = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			users.add(usersById.get(id));
+		}
+		return users;
+	}
+
+	/**
+	 * Walks all the users, in id order and with the "user-entity-graph" applied, without ever holding more than
+	 * {@code windowSize} of them: the ids are read from a forward-only cursor, {@code fetchSize} rows per round-trip,
+	 * and the persistence context is cleared after each window of users is handed to {@code action}.
+	 *
+	 * @return the number of users visited
+	 */
+	public long forEachUserUsingEntityGraph(int windowSize, int fetchSize, Consumer<User> action) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("windowSize must be positive, was " + windowSize);
+		}
+
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			Session session = entityManager.unwrap(Session.class);
+			// Nothing is modified, and caching every user of a full walk would only fill the heap
+			session.setDefaultReadOnly(true);
+			session.setCacheMode(CacheMode.GET);
+			entityManager.getTransaction().begin();
+
+			long visited = 0;
+			List<Long> window = new ArrayList<>(windowSize);
+
+			// Scrolling ids rather than users: the users are loaded a window at a time, with their graph
+			try (ScrollableResults<Long> ids = session.createNamedQuery(User.FIND_ALL_IDS, Long.class)
+					.setFetchSize(fetchSize)
+					.scroll(ScrollMode.FORWARD_ONLY)) {
+				while (ids.next()) {
+					window.add(ids.get());
+					if (window.size() == windowSize) {
+						visited += visitWindow(entityManager, window, action);
+					}
+				}
+				visited += visitWindow(entityManager, window, action);
+			}
+
+			entityManager.getTransaction().commit();
+			return visited;
+		}
+		finally {
+			// The action may throw: release the cursor's connection either way
+			if (entityManager.getTransaction().isActive()) {
+				entityManager.getTransaction().rollback();
+			}
+			entityManager.close();
+		}
+	}
+
+	private static int visitWindow(EntityManager entityManager, List<Long> window, Consumer<User> action) {
+		Map<Long, User> usersById = new HashMap<>();
+		findChunkUsingEntityGraph(entityManager, window, GraphFetchMode.JOINED, usersById);
+
+		for (Long id : window) {
+			User user = usersById.get(id);
+			if (user != null) {
+				action.accept(user);
+			}
+		}
+
+		int visited = usersById.size();
+		window.clear();
+		entityManager.clear();
+		return visited;
+	}
+
+	private static void findChunkUsingEntityGraph(EntityManager entityManager, List<Long> ids, GraphFetchMode mode,
+			Map<Long, User> usersById) {
+		if (ids.isEmpty()) {
+			return;
+		}
+
+		// In SPLIT mode the detail is join fetched by the query itself, keeping the active one only
+		String queryName = mode == GraphFetchMode.SPLIT ? User.FIND_BY_IDS_WITH_ACTIVE_DETAIL : User.FIND_BY_IDS;
+		entityManager.createNamedQuery(queryName, User.class)
+				.setParameter("ids", ids)
+				.setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(graphName(mode)))
+				.getResultList()
+				.forEach(user -> {
+					if (mode == GraphFetchMode.SPLIT && user.getDetail() != null && !user.getDetail().getActive()) {
+						// A user without any active detail keeps the row of one of its inactive details: the fetch join
+						// cannot take the @Where clause of the details, and the inverse side, never flushed, is corrected here
+						user.setDetail(null);
+					}
+					usersById.put(user.getId(), user);
+				});
+	}
+
+	private static String graphName(GraphFetchMode mode) {
+		return mode == GraphFetchMode.SPLIT ? "user-skills-graph" : "user-entity-graph";
+	}
+
+	public void deleteAllRecords() {
+		new DeleteReset().reset(entityManagerFactory);
 	}
 
 	@Test
@@ -745,4 +1119,211 @@ public class JPAUnitTestCase {
 		assertTrue(grace.getSkills().stream().noneMatch(UserSkill::getDeleted));
 		assertEquals(4, grace.getSkills().size());
 	}
+
+	@Test
+	public void findUsersByIdsInInputOrderTest() {
+		// Given
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		User alice = new User();
+		alice.setName("Alice");
+		entityManager.persist(alice);
+
+		User bob = new User();
+		bob.setName("Bob");
+		entityManager.persist(bob);
+
+		UserDetail bobDetail = new UserDetail();
+		bobDetail.setCity("New York");
+		bobDetail.setActive(false);
+		bobDetail.setUser(bob);
+		entityManager.persist(bobDetail);
+
+		User grace = new User();
+		grace.setName("Grace");
+		entityManager.persist(grace);
+
+		UserDetail graceDetail1 = new UserDetail();
+		graceDetail1.setCity("Vienna");
+		graceDetail1.setActive(false);
+		graceDetail1.setUser(grace);
+		entityManager.persist(graceDetail1);
+
+		UserDetail graceDetail2 = new UserDetail();
+		graceDetail2.setCity("Barcelona");
+		graceDetail2.setActive(true);
+		graceDetail2.setUser(grace);
+		entityManager.persist(graceDetail2);
+
+		UserSkill graceSkill1 = new UserSkill();
+		graceSkill1.setSkillName("PHP");
+		graceSkill1.setDeleted(false);
+		graceSkill1.setUser(grace);
+		entityManager.persist(graceSkill1);
+
+		UserSkill graceSkill2 = new UserSkill();
+		graceSkill2.setSkillName("Swift");
+		graceSkill2.setDeleted(true);
+		graceSkill2.setUser(grace);
+		entityManager.persist(graceSkill2);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		Long unknownId = grace.getId() + 1000;
+
+		// When
+		List<User> users = findUsersByIdsUsingEntityGraph(
+				asList(grace.getId(), unknownId, alice.getId(), bob.getId(), grace.getId()), 2);
+
+		// Then
+		assertEquals(5, users.size());
+		assertNull(users.get(1));
+
+		assertEquals("Grace", users.get(0).getName());
+		assertEquals("Alice", users.get(2).getName());
+		assertEquals("Bob", users.get(3).getName());
+		assertSame(users.get(0), users.get(4));
+
+		assertNull(users.get(2).getDetail());
+		assertTrue(users.get(2).getSkills().isEmpty());
+
+		assertNull(users.get(3).getDetail());
+		assertTrue(users.get(3).getSkills().isEmpty());
+
+		assertEquals(graceDetail2, users.get(0).getDetail());
+		assertEquals(Collections.singleton("PHP"),
+				users.get(0).getSkills().stream().map(UserSkill::getSkillName).collect(toSet()));
+	}
+
+	@Test
+	public void forEachUserInWindowsTest() {
+		// Given
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		for (String name : asList("Alice", "Bob", "Charlie", "David", "Eve")) {
+			User user = new User();
+			user.setName(name);
+			entityManager.persist(user);
+
+			UserDetail detail = new UserDetail();
+			detail.setCity(name + " City");
+			detail.setActive(!name.equals("Bob"));
+			detail.setUser(user);
+			entityManager.persist(detail);
+
+			UserSkill skill = new UserSkill();
+			skill.setSkillName("Java");
+			skill.setDeleted(name.equals("Charlie"));
+			skill.setUser(user);
+			entityManager.persist(skill);
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		// When
+		List<User> users = new ArrayList<>();
+		long visited = forEachUserUsingEntityGraph(2, 2, users::add);
+
+		// Then
+		assertEquals(5, visited);
+		assertEquals(asList("Alice", "Bob", "Charlie", "David", "Eve"),
+				users.stream().map(User::getName).collect(toList()));
+
+		// Bob's only detail is inactive, hidden by the @Where clause of UserDetail
+		assertNull(users.get(1).getDetail());
+		assertEquals("David City", users.get(3).getDetail().getCity());
+		assertTrue(users.get(3).getDetail().getActive());
+
+		assertTrue(users.get(2).getSkills().isEmpty());
+		assertEquals(1, users.get(4).getSkills().size());
+	}
+
+	@Test
+	public void findUserByIdWithMultipleDetailsAndMultipleSkillsInSplitModeTest() {
+		// Given
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		User user = new User();
+		user.setName("Eve");
+		entityManager.persist(user);
+
+		UserDetail detail1 = new UserDetail();
+		detail1.setCity("Moscow");
+		detail1.setActive(false);
+		detail1.setUser(user);
+		entityManager.persist(detail1);
+
+		UserDetail detail2 = new UserDetail();
+		detail2.setCity("Berlin");
+		detail2.setActive(true);
+		detail2.setUser(user);
+		entityManager.persist(detail2);
+
+		UserSkill skill1 = new UserSkill();
+		skill1.setSkillName("Python");
+		skill1.setDeleted(true);
+		skill1.setUser(user);
+		entityManager.persist(skill1);
+
+		UserSkill skill2 = new UserSkill();
+		skill2.setSkillName("Ruby");
+		skill2.setDeleted(false);
+		skill2.setUser(user);
+		entityManager.persist(skill2);
+
+		UserSkill skill3 = new UserSkill();
+		skill3.setSkillName("Elixir");
+		skill3.setDeleted(false);
+		skill3.setUser(user);
+		entityManager.persist(skill3);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		Long userId = user.getId();
+
+		// When
+		User eve = findUserByIdUsingEntityGraph(userId, GraphFetchMode.SPLIT);
+
+		// Then
+		assertNotNull(eve);
+		assertEquals("Eve", eve.getName());
+
+		assertNotNull(eve.getDetail());
+		assertTrue(eve.getDetail().getActive());
+		assertEquals("Berlin", eve.getDetail().getCity());
+
+		assertTrue(eve.getSkills().stream().noneMatch(UserSkill::getDeleted));
+		assertEquals(2, eve.getSkills().size());
+	}
+
+	@Test
+	public void findUserByNameWithNoDetailAndNoSkillInSplitModeTest() {
+		// Given
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		User user = new User();
+		user.setName("Alice");
+		entityManager.persist(user);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		// When
+		User alice = findUserByNameUsingEntityGraph("Alice", GraphFetchMode.SPLIT);
+
+		// Then
+		assertNotNull(alice);
+		assertEquals("Alice", alice.getName());
+
+		assertNull(alice.getDetail());
+
+		assertTrue(alice.getSkills().isEmpty());
+	}
 }
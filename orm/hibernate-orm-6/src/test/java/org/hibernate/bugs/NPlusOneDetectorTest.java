@@ -0,0 +1,146 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.bugs.lazy.NPlusOneDetector;
+import org.hibernate.bugs.lazy.NPlusOneSelectException;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserSkill;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link NPlusOneDetector} reports the loops touching a lazy association of each user, and only those.
+ */
+public class NPlusOneDetectorTest {
+
+	private JPAUnitTestCase template;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void skillsInitializedInALoopAreReportedTest() {
+		// Given
+		init(NPlusOneDetector.Action.LOG);
+		persistAllScenarios();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<User> users = entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+		for (User user : users) {
+			user.getSkills().size();
+		}
+		entityManager.close();
+
+		// Then
+		List<NPlusOneDetector.Violation> violations = NPlusOneDetector.from(entityManagerFactory).getViolations();
+		assertEquals(1, violations.size());
+		NPlusOneDetector.Violation violation = violations.get(0);
+		assertEquals(User.class.getName() + ".skills", violation.getPath());
+		assertEquals(UserScenario.values().length, violation.getCount());
+		assertEquals(1, violation.getCallSites().size());
+		assertTrue(violation.toString(), violation.getCallSites().keySet().iterator().next()
+				.startsWith(NPlusOneDetectorTest.class.getName() + ".skillsInitializedInALoopAreReportedTest"));
+	}
+
+	@Test
+	public void userProxiesInitializedInALoopAreReportedTest() {
+		// Given
+		init(NPlusOneDetector.Action.LOG);
+		persistAllScenarios();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<UserSkill> skills = entityManager.createQuery("SELECT s FROM UserSkill s", UserSkill.class).getResultList();
+		for (UserSkill skill : skills) {
+			skill.getUser().getName();
+		}
+		entityManager.close();
+
+		// Then
+		List<NPlusOneDetector.Violation> violations = NPlusOneDetector.from(entityManagerFactory).getViolations();
+		assertEquals(1, violations.size());
+		// David, Eve, Frank and Grace have live skills
+		assertEquals(UserSkill.class.getName() + ".user", violations.get(0).getPath());
+		assertEquals(4, violations.get(0).getCount());
+	}
+
+	@Test
+	public void entityGraphFinderIsNotReportedTest() {
+		// Given
+		init(NPlusOneDetector.Action.FAIL);
+		List<Long> ids = persistAllScenarios();
+
+		// When
+		List<User> users = template.findUsersByIdsUsingEntityGraph(ids);
+
+		// Then
+		assertEquals(ids.size(), users.size());
+		assertTrue(NPlusOneDetector.from(entityManagerFactory).getViolations().isEmpty());
+	}
+
+	@Test
+	public void failActionThrowsOnceOverThresholdTest() {
+		// Given
+		init(NPlusOneDetector.Action.FAIL);
+		persistAllScenarios();
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		List<User> users = entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+		int initialized = 0;
+		try {
+			for (User user : users) {
+				initialized++;
+				user.getSkills().size();
+			}
+			fail("Initializing the skills of each user should have been reported");
+		}
+		catch (NPlusOneSelectException e) {
+			// Then
+			assertEquals(4, initialized);
+			assertTrue(e.getMessage(), e.getMessage().contains(User.class.getName() + ".skills initialized 4 times"));
+		}
+		finally {
+			entityManager.close();
+		}
+	}
+
+	private void init(NPlusOneDetector.Action action) {
+		Map<String, Object> properties = new HashMap<>();
+		properties.put(NPlusOneDetector.THRESHOLD, "3");
+		properties.put(NPlusOneDetector.ACTION, action.name());
+		template = new JPAUnitTestCase();
+		template.init(properties);
+		entityManagerFactory = template.getEntityManagerFactory();
+	}
+
+	private List<Long> persistAllScenarios() {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		List<Long> ids = new ArrayList<>();
+		for (UserScenario scenario : UserScenario.values()) {
+			ids.add(scenario.persist(entityManager, scenario.getName()).getId());
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		entityManagerFactory.getCache().evictAll();
+		return ids;
+	}
+}
@@ -1,9 +1,10 @@
 package org.hibernate.bugs;
 
 import org.hibernate.SessionFactory;
-import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.bugs.bootstrap.BootstrapCache;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -17,18 +18,28 @@ public class ORMStandaloneTestCase {
 
 	@Before
 	public void setup() {
-		StandardServiceRegistryBuilder srb = new StandardServiceRegistryBuilder()
-			// Add in any settings that are specific to your test. See resources/hibernate.properties for the defaults.
-			.applySetting( "hibernate.show_sql", "true" )
-			.applySetting( "hibernate.format_sql", "true" )
-			.applySetting( "hibernate.hbm2ddl.auto", "update" );
-
-		Metadata metadata = new MetadataSources( srb.build() )
-		// Add your entities here.
-		//	.addAnnotatedClass( Foo.class )
-			.buildMetadata();
-
-		sf = metadata.buildSessionFactory();
+		// With the BootstrapCache enabled, the metadata is only built for the first test of this class
+		sf = BootstrapCache.sessionFactory( getClass(), () -> {
+			StandardServiceRegistryBuilder srb = new StandardServiceRegistryBuilder()
+				// Add in any settings that are specific to your test. See resources/hibernate.properties for the defaults.
+				.applySetting( "hibernate.show_sql", "true" )
+				.applySetting( "hibernate.format_sql", "true" )
+				.applySetting( "hibernate.hbm2ddl.auto", "update" );
+
+			return new MetadataSources( srb.build() )
+			// Add your entities here.
+			//	.addAnnotatedClass( Foo.class )
+				.buildMetadata();
+		} );
+	}
+
+	@After
+	public void tearDown() {
+		// A cached factory is shared with the next tests of this class, which see the data this one left: delete it
+		// here if your tests persist any
+		if ( !BootstrapCache.isCached( sf ) ) {
+			sf.close();
+		}
 	}
 
 	// Add your tests, using standard JUnit.
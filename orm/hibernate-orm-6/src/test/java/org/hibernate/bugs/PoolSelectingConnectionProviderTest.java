@@ -0,0 +1,51 @@
+package org.hibernate.bugs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.bugs.jdbc.PoolSelectingConnectionProvider;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the template keeps Hibernate's built-in pool unless {@code hibernate.pool.hikari} turns HikariCP on.
+ */
+public class PoolSelectingConnectionProviderTest {
+
+	private JPAUnitTestCase template;
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void builtInPoolByDefaultTest() {
+		// When
+		template = new JPAUnitTestCase();
+		template.init();
+
+		// Then
+		ConnectionProvider pool = PoolSelectingConnectionProvider.from(template.getEntityManagerFactory());
+		assertTrue(pool.getClass().getName(), pool instanceof DriverManagerConnectionProviderImpl);
+		assertNull(template.findUserByIdUsingEntityGraph(1L));
+	}
+
+	@Test
+	public void hikariPoolWhenEnabledTest() {
+		// When
+		template = new JPAUnitTestCase();
+		template.init(Collections.singletonMap(PoolSelectingConnectionProvider.HIKARI, "true"));
+
+		// Then
+		HikariDataSource dataSource = PoolSelectingConnectionProvider.from(template.getEntityManagerFactory())
+				.unwrap(HikariDataSource.class);
+		assertEquals("templatePool", dataSource.getPoolName());
+		assertEquals(64, dataSource.getMaximumPoolSize());
+		assertNull(template.findUserByIdUsingEntityGraph(1L));
+	}
+}
@@ -0,0 +1,125 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.bugs.query.QueryPlanCacheMetrics;
+import org.hibernate.bugs.query.QueryPlanWarmUp;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the named queries of the entities are compiled at bootstrap, so that the first lookups find them in the
+ * query plan cache: by Hibernate when it checks them at startup, by {@link QueryPlanWarmUp} when it does not.
+ */
+public class QueryPlanWarmUpTest {
+
+	private JPAUnitTestCase template;
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void namedQueriesAreCompiledAtBootstrapTest() {
+		// When
+		init(true);
+
+		// Then
+		QueryPlanWarmUp warmUp = QueryPlanWarmUp.from(template.getEntityManagerFactory());
+		assertNotNull(warmUp);
+		assertTrue(warmUp.getQueryNames().toString(), warmUp.getQueryNames().containsAll(
+				asList(User.FIND_BY_NAME, User.FIND_BY_IDS, User.FIND_ALL_IDS)));
+
+		QueryPlanCacheMetrics metrics = warmUp.getMetrics();
+		assertEquals(warmUp.getQueryNames().size(), metrics.getHqlInterpretationCount());
+		assertEquals(warmUp.getQueryNames().size(), metrics.getMissCount());
+		assertEquals(0, metrics.getHitCount());
+	}
+
+	@Test
+	public void firstLookupHitsTheCacheWhenWarmedUpTest() {
+		// Given
+		init(true);
+		persistAlice();
+		QueryPlanCacheMetrics before = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+
+		// When
+		template.findUserByNameUsingEntityGraph("Alice");
+
+		// Then
+		QueryPlanCacheMetrics after = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+		assertEquals(before.getMissCount(), after.getMissCount());
+		assertEquals(before.getHitCount() + 1, after.getHitCount());
+	}
+
+	@Test
+	public void startupCheckCompilesNamedQueriesWithoutWarmUpTest() {
+		// Given
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("hibernate.generate_statistics", "true");
+		settings.put(QueryPlanWarmUp.ENABLED, "true");
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+		persistAlice();
+		QueryPlanCacheMetrics before = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+
+		// When
+		template.findUserByNameUsingEntityGraph("Alice");
+
+		// Then
+		assertNull(QueryPlanWarmUp.from(template.getEntityManagerFactory()));
+		assertTrue(before.getHqlInterpretationCount() >= 3);
+		QueryPlanCacheMetrics after = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+		assertEquals(before.getMissCount(), after.getMissCount());
+		assertEquals(before.getHitCount() + 1, after.getHitCount());
+	}
+
+	@Test
+	public void firstLookupCompilesItsQueryWhenNotWarmedUpTest() {
+		// Given
+		init(false);
+		persistAlice();
+		assertNull(QueryPlanWarmUp.from(template.getEntityManagerFactory()));
+		QueryPlanCacheMetrics before = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+
+		// When
+		template.findUserByNameUsingEntityGraph("Alice");
+		QueryPlanCacheMetrics afterFirst = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+		template.findUserByNameUsingEntityGraph("Alice");
+		QueryPlanCacheMetrics afterSecond = QueryPlanCacheMetrics.of(template.getEntityManagerFactory());
+
+		// Then
+		assertEquals(before.getMissCount() + 1, afterFirst.getMissCount());
+		assertEquals(before.getHqlInterpretationCount() + 1, afterFirst.getHqlInterpretationCount());
+		assertEquals(afterFirst.getMissCount(), afterSecond.getMissCount());
+		assertEquals(afterFirst.getHitCount() + 1, afterSecond.getHitCount());
+	}
+
+	private void init(boolean warmUp) {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("hibernate.generate_statistics", "true");
+		settings.put(AvailableSettings.QUERY_STARTUP_CHECKING, "false");
+		settings.put(QueryPlanWarmUp.ENABLED, String.valueOf(warmUp));
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+	}
+
+	private void persistAlice() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+		UserScenario.ALICE.persist(entityManager, "Alice");
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+}
@@ -0,0 +1,112 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserDetail;
+import org.hibernate.entity.UserSkill;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the read-only finders of {@link JPAUnitTestCase} load the same users as the read-write ones, without
+ * flushing.  They share the query and the graph of the read-write finders, and their known bugs with them: the
+ * comparison holds whatever those bugs load.
+ */
+public class ReadOnlyFinderTest {
+
+	private JPAUnitTestCase template;
+
+	private Statistics statistics;
+
+	@Before
+	public void init() {
+		template = new JPAUnitTestCase();
+		template.init(Collections.singletonMap("hibernate.generate_statistics", "true"));
+		statistics = template.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void readOnlyFindersMatchReadWriteFindersTest() {
+		// Given
+		Map<UserScenario, Long> ids = persistAllScenarios();
+
+		for (UserScenario scenario : UserScenario.values()) {
+			// When
+			template.getEntityManagerFactory().getCache().evictAll();
+			User readWriteById = template.findUserByIdUsingEntityGraph(ids.get(scenario));
+			User readWriteByName = template.findUserByNameUsingEntityGraph(scenario.getName());
+			template.getEntityManagerFactory().getCache().evictAll();
+			User readOnlyById = template.findReadOnlyUserByIdUsingEntityGraph(ids.get(scenario));
+			User readOnlyByName = template.findReadOnlyUserByNameUsingEntityGraph(scenario.getName());
+
+			// Then
+			assertEquals(scenario + " by id", describe(readWriteById), describe(readOnlyById));
+			assertEquals(scenario + " by name", describe(readWriteByName), describe(readOnlyByName));
+		}
+	}
+
+	@Test
+	public void readOnlyFindersDoNotFlushTest() {
+		// Given
+		Map<UserScenario, Long> ids = persistAllScenarios();
+		Long graceId = ids.get(UserScenario.GRACE);
+
+		// When
+		statistics.clear();
+		template.findUserByIdUsingEntityGraph(graceId);
+		template.findUserByNameUsingEntityGraph("Grace");
+		long readWriteFlushes = statistics.getFlushCount();
+
+		statistics.clear();
+		template.findReadOnlyUserByIdUsingEntityGraph(graceId);
+		template.findReadOnlyUserByNameUsingEntityGraph("Grace");
+		long readOnlyFlushes = statistics.getFlushCount();
+
+		// Then
+		assertEquals(2, readWriteFlushes);
+		assertEquals(0, readOnlyFlushes);
+	}
+
+	private Map<UserScenario, Long> persistAllScenarios() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+
+		Map<UserScenario, Long> ids = new EnumMap<>(UserScenario.class);
+		for (UserScenario scenario : UserScenario.values()) {
+			ids.put(scenario, scenario.persist(entityManager, scenario.getName()).getId());
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+		return ids;
+	}
+
+	/**
+	 * @return the name, detail and live skills of the user, whatever the finder got right or wrong about them
+	 */
+	private static String describe(User user) {
+		if (user == null) {
+			return "no user";
+		}
+		UserDetail detail = user.getDetail();
+		return user.getName()
+				+ ", " + (detail == null ? "no detail" : detail.getCity() + (detail.getActive() ? " (active)" : " (inactive)"))
+				+ ", " + user.getSkills().stream().map(UserSkill::getSkillName).sorted().collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,53 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the generated schema has the indexes declared by the entities, for the columns the finders and the
+ * {@code @Where} clauses filter on.
+ */
+public class SchemaIndexTest {
+
+	private JPAUnitTestCase template;
+
+	@Before
+	public void init() {
+		template = new JPAUnitTestCase();
+		template.init();
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void filterColumnsAreIndexedTest() {
+		// Given
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+
+		// When
+		@SuppressWarnings("unchecked")
+		List<String> indexes = entityManager.createNativeQuery(
+				"SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) LIKE 'idx_%'")
+				.getResultList();
+		entityManager.close();
+
+		// Then
+		Set<String> expected = new HashSet<>(Arrays.asList(
+				"idx_users_user_name",
+				"idx_user_details_user_id_is_active",
+				"idx_user_skills_user_id_has_deleted"));
+		assertEquals(expected, new HashSet<>(indexes));
+	}
+}
@@ -0,0 +1,97 @@
+package org.hibernate.bugs;
+
+import org.hibernate.bugs.load.LoadDriver;
+import org.hibernate.bugs.load.LoadReport;
+import org.hibernate.bugs.load.UserScenario;
+import org.jboss.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs the {@link LoadDriver} for a couple of seconds against the "templatePU" persistence unit.  It is left out of
+ * the default build: run it with {@code mvn test -Pload}.
+ * <p>
+ * To reproduce a contention problem, raise the load from the command line, for example
+ * {@code mvn test -Pload -Dtest=UserLoadTest -Dload.threads=64 -Dload.duration=60 -Dload.readRatio=0.5}.
+ */
+public class UserLoadTest {
+
+	private static final Logger LOG = Logger.getLogger(UserLoadTest.class);
+
+	private static final int THREADS = Integer.getInteger("load.threads", 4);
+
+	private JPAUnitTestCase template;
+
+	@Before
+	public void init() {
+		// Logging every statement would be most of the load
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("hibernate.show_sql", "false");
+		settings.put("hibernate.session.events.log", "false");
+		// The built-in pool fails the threads it cannot serve instead of queueing them
+		settings.put("hibernate.connection.pool_size", String.valueOf(Math.max(5, THREADS)));
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void mixedLoadOnPlatformThreadsTest() {
+		// When
+		LoadReport report = configuredDriver().run();
+
+		// Then
+		assertReport(report);
+	}
+
+	@Test
+	public void mixedLoadOnVirtualThreadsTest() {
+		assumeTrue("Virtual threads need Java 21", LoadDriver.supportsVirtualThreads());
+
+		// When
+		LoadReport report = configuredDriver().virtualThreads(true).run();
+
+		// Then
+		assertReport(report);
+	}
+
+	/**
+	 * No operation may fail.  The scenarios with several details, or without a live skill, are not loaded as expected
+	 * by the entity graph finders yet (see findUserByIdWithInactiveDetailAndNoSkillTest): their mismatches are logged,
+	 * but only Frank, whom the finders do load right, must never mismatch.
+	 */
+	private static void assertReport(LoadReport report) {
+		LOG.infof("%d operations, %d mismatches: %s",
+				report.getOperationCount(), report.getMismatchCount(), report.getMismatches());
+
+		assertTrue(report.getOperationCount() > 0);
+		assertEquals(Collections.emptyMap(), report.getErrors());
+		for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+			assertFalse(report.getMismatches().toString(),
+					report.getMismatches().containsKey(operation + ": " + UserScenario.FRANK));
+		}
+	}
+
+	private LoadDriver configuredDriver() {
+		return new LoadDriver(template)
+				.threads(THREADS)
+				.readRatio(Double.parseDouble(System.getProperty("load.readRatio", "0.8")))
+				.copiesPerScenario(Integer.getInteger("load.copiesPerScenario", 20))
+				.warmup(Duration.ofSeconds(Long.getLong("load.warmup", 0L)))
+				.duration(Duration.ofSeconds(Long.getLong("load.duration", 2L)));
+	}
+}
@@ -0,0 +1,169 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.bugs.cost.OperationCost;
+import org.hibernate.bugs.cost.QueryBudget;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.entity.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks what the entity-graph finders of {@link JPAUnitTestCase} cost the database, so that a change turning one of
+ * them into an N+1 select fails here rather than in production.
+ * <p>
+ * The second-level cache is emptied before each measured call: a cache hit would make any budget look good.
+ */
+public class UserQueryBudgetTest {
+
+	private JPAUnitTestCase template;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@Before
+	public void init() {
+		Map<String, Object> settings = OperationCost.settings();
+		settings.put("hibernate.connection.provider_class", CountingConnectionProvider.class.getName());
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+		entityManagerFactory = template.getEntityManagerFactory();
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void findUserByIdIssuesOneStatementTest() {
+		// Given
+		Long userId = persist(UserScenario.FRANK, "Frank");
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		User frank;
+		try (QueryBudget budget = QueryBudget.maxStatements(1).roundTrips(1).start(entityManagerFactory)) {
+			frank = template.findUserByIdUsingEntityGraph(userId);
+		}
+
+		// Then
+		assertTrue(UserScenario.FRANK.matches(frank, "Frank"));
+	}
+
+	@Test
+	public void findUserByNameIssuesOneStatementTest() {
+		// Given
+		persist(UserScenario.FRANK, "Frank");
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		User frank = QueryBudget.maxStatements(1).roundTrips(1)
+				.enforce(entityManagerFactory, () -> template.findUserByNameUsingEntityGraph("Frank"));
+
+		// Then
+		assertTrue(UserScenario.FRANK.matches(frank, "Frank"));
+	}
+
+	@Test
+	public void findUsersByIdsIssuesOneStatementPerChunkTest() {
+		// Given
+		List<Long> ids = new ArrayList<>();
+		for (UserScenario scenario : UserScenario.values()) {
+			ids.add(persist(scenario, scenario.getName()));
+		}
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		OperationCost cost = OperationCost.measure(entityManagerFactory,
+				() -> template.findUsersByIdsUsingEntityGraph(ids, 3));
+
+		// Then
+		// Two chunks of 3 ids share the same SQL, which is not an N+1 select
+		QueryBudget.maxStatements(3).roundTrips(3).allowRepeatedStatements().check(cost);
+		assertTrue(cost.getEntitiesLoaded() >= ids.size());
+	}
+
+	@Test
+	public void findUserByIdInSplitModeIssuesOneStatementTest() {
+		// Given
+		Long userId = persist(UserScenario.EVE, "Eve");
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		User eve = QueryBudget.maxStatements(1).roundTrips(1)
+				.enforce(entityManagerFactory, () -> template.findUserByIdUsingEntityGraph(userId, GraphFetchMode.SPLIT));
+
+		// Then
+		assertTrue(UserScenario.EVE.matches(eve, "Eve"));
+	}
+
+	@Test
+	public void findUsersByIdsInSplitModeIssuesOneStatementPerChunkTest() {
+		// Given
+		List<Long> ids = new ArrayList<>();
+		for (UserScenario scenario : UserScenario.values()) {
+			ids.add(persist(scenario, scenario.getName()));
+		}
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		List<User> users = new ArrayList<>();
+		OperationCost cost = OperationCost.measure(entityManagerFactory,
+				() -> users.addAll(template.findUsersByIdsUsingEntityGraph(ids, 3, GraphFetchMode.SPLIT)));
+
+		// Then
+		// Not a statement more per user: the details come with the users and the skills of their chunk
+		QueryBudget.maxStatements(3).roundTrips(3).allowRepeatedStatements().check(cost);
+		for (int i = 0; i < ids.size(); i++) {
+			UserScenario scenario = UserScenario.values()[i];
+			assertTrue(scenario.name(), scenario.matches(users.get(i), scenario.getName()));
+		}
+	}
+
+	@Test
+	public void nPlusOneSelectIsOverBudgetTest() {
+		// Given
+		for (UserScenario scenario : UserScenario.values()) {
+			persist(scenario, scenario.getName());
+		}
+		entityManagerFactory.getCache().evictAll();
+
+		// When
+		try {
+			QueryBudget.unlimited().enforce(entityManagerFactory, () -> {
+				EntityManager entityManager = entityManagerFactory.createEntityManager();
+				List<User> users = entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+				users.forEach(user -> user.getSkills().size());
+				entityManager.close();
+				return users;
+			});
+			fail("Loading the skills of each user one by one should have been reported");
+		}
+		catch (AssertionError e) {
+			// Then
+			assertTrue(e.getMessage(), e.getMessage().contains("N+1 select"));
+		}
+	}
+
+	private Long persist(UserScenario scenario, String name) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		User user = scenario.persist(entityManager, name);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return user.getId();
+	}
+}
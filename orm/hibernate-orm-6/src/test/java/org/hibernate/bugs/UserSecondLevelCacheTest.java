@@ -0,0 +1,191 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.bugs.cache.CacheRegionMetrics;
+import org.hibernate.bugs.cache.FilteredAssociationCacheInvalidator;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserDetail;
+import org.hibernate.entity.UserSkill;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the entity-graph finders of {@link JPAUnitTestCase} are served from the second-level cache, and that
+ * the cache never resurrects a detail or skill hidden by the {@code @Where} clauses.
+ */
+public class UserSecondLevelCacheTest {
+
+	private static final String SKILLS_ROLE = User.class.getName() + ".skills";
+
+	private JPAUnitTestCase template;
+
+	private EntityManagerFactory entityManagerFactory;
+
+	@Before
+	public void init() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put("hibernate.generate_statistics", "true");
+		settings.put(FilteredAssociationCacheInvalidator.ENABLED, "true");
+
+		template = new JPAUnitTestCase();
+		template.init(settings);
+		entityManagerFactory = template.getEntityManagerFactory();
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void findUserByIdTwiceHitsCacheTest() {
+		// Given
+		// A single detail: the join fetch of the graph would otherwise return whichever detail row comes first
+		Long userId = persistUserWithSkills("Grace", false, "PHP", "Swift");
+
+		// When
+		User first = template.findUserByIdUsingEntityGraph(userId);
+		User second = template.findUserByIdUsingEntityGraph(userId);
+
+		// Then
+		assertEquals(2, first.getSkills().size());
+		assertEquals(2, second.getSkills().size());
+		assertEquals("Barcelona", second.getDetail().getCity());
+
+		assertTrue(CacheRegionMetrics.ofEntity(entityManagerFactory, User.class).getHitCount() > 0);
+		assertTrue(CacheRegionMetrics.ofCollection(entityManagerFactory, SKILLS_ROLE).getHitCount() > 0);
+	}
+
+	@Test
+	public void softDeletedSkillIsNotServedFromCacheTest() {
+		// Given
+		Long userId = persistUserWithSkills("Frank", true, "Erlang", "Go");
+		assertEquals(2, template.findUserByIdUsingEntityGraph(userId).getSkills().size());
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		entityManager.createQuery("SELECT s FROM UserSkill s WHERE s.skillName = 'Go'", UserSkill.class)
+				.getSingleResult()
+				.setDeleted(true);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		User frank = template.findUserByIdUsingEntityGraph(userId);
+
+		// Then
+		assertEquals(1, frank.getSkills().size());
+		assertEquals("Erlang", frank.getSkills().stream().findFirst().orElseThrow(IllegalStateException::new).getSkillName());
+	}
+
+	@Test
+	public void addedSkillIsNotMissingFromCacheTest() {
+		// Given
+		Long userId = persistUserWithSkills("David", true, "Kotlin");
+		assertEquals(1, template.findUserByIdUsingEntityGraph(userId).getSkills().size());
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		UserSkill skill = new UserSkill();
+		skill.setSkillName("Scala");
+		skill.setDeleted(false);
+		skill.setUser(entityManager.getReference(User.class, userId));
+		entityManager.persist(skill);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		User david = template.findUserByIdUsingEntityGraph(userId);
+
+		// Then
+		assertEquals(2, david.getSkills().size());
+	}
+
+	@Test
+	public void deactivatedDetailIsNotServedFromCacheTest() {
+		// Given
+		Long userId = persistUserWithSkills("Charlie", true, "Java");
+		assertNotNull(template.findUserByIdUsingEntityGraph(userId).getDetail());
+		assertTrue(entityManagerFactory.getCache().contains(User.class, userId));
+
+		// When
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		entityManager.createQuery("SELECT d FROM UserDetail d WHERE d.city = 'Barcelona'", UserDetail.class)
+				.getSingleResult()
+				.setActive(false);
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		boolean cached = entityManagerFactory.getCache().contains(User.class, userId);
+
+		// Then
+		assertFalse(cached);
+
+		// Loaded again from the database, without the graph: the detail is then selected through its @Where clause,
+		// which the join fetch of the graph ignores
+		entityManager = entityManagerFactory.createEntityManager();
+		User charlie = entityManager.find(User.class, userId);
+		assertNull(String.valueOf(charlie.getDetail()), charlie.getDetail());
+		entityManager.close();
+	}
+
+	/**
+	 * Persists a user with an active detail in Barcelona, preceded by an inactive one in Vienna if {@code detailHistory}
+	 * is set, a deleted "C" skill and the given live skills.
+	 */
+	private Long persistUserWithSkills(String name, boolean detailHistory, String... skillNames) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		User user = new User();
+		user.setName(name);
+		entityManager.persist(user);
+
+		if (detailHistory) {
+			UserDetail detail1 = new UserDetail();
+			detail1.setCity("Vienna");
+			detail1.setActive(false);
+			detail1.setUser(user);
+			entityManager.persist(detail1);
+		}
+
+		UserDetail detail2 = new UserDetail();
+		detail2.setCity("Barcelona");
+		detail2.setActive(true);
+		detail2.setUser(user);
+		entityManager.persist(detail2);
+
+		UserSkill deletedSkill = new UserSkill();
+		deletedSkill.setSkillName("C");
+		deletedSkill.setDeleted(true);
+		deletedSkill.setUser(user);
+		entityManager.persist(deletedSkill);
+
+		for (String skillName : skillNames) {
+			UserSkill skill = new UserSkill();
+			skill.setSkillName(skillName);
+			skill.setDeleted(false);
+			skill.setUser(user);
+			entityManager.persist(skill);
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+
+		return user.getId();
+	}
+}
@@ -0,0 +1,102 @@
+package org.hibernate.bugs;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.cost.OperationCost;
+import org.hibernate.bugs.cost.QueryBudget;
+import org.hibernate.bugs.load.UserScenario;
+import org.hibernate.bugs.projection.UserSummary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link UserSummary} projections of {@link JPAUnitTestCase} show the same data as the entity-graph
+ * finders, with a single statement and no entity.
+ */
+public class UserSummaryProjectionTest {
+
+	private JPAUnitTestCase template;
+
+	@Before
+	public void init() {
+		template = new JPAUnitTestCase();
+		template.init(OperationCost.settings());
+	}
+
+	@After
+	public void destroy() {
+		template.destroy();
+	}
+
+	@Test
+	public void summariesMatchEveryScenarioTest() {
+		// Given
+		Map<UserScenario, Long> ids = persistAllScenarios();
+
+		for (UserScenario scenario : UserScenario.values()) {
+			// When
+			UserSummary byId = template.findUserSummaryById(ids.get(scenario));
+			UserSummary byName = template.findUserSummaryByName(scenario.getName());
+
+			// Then
+			assertTrue(String.valueOf(byId), scenario.matches(byId, scenario.getName()));
+			assertEquals(byId, byName);
+		}
+	}
+
+	@Test
+	public void summaryListsLiveSkillsInOrderTest() {
+		// Given
+		persistAllScenarios();
+
+		// When
+		UserSummary grace = template.findUserSummaryByName("Grace");
+
+		// Then
+		assertEquals("Barcelona", grace.getActiveCity());
+		assertEquals(Arrays.asList("Dart", "PHP", "Scala", "Swift"), grace.getSkillNames());
+		assertNull(template.findUserSummaryByName("Alice").getActiveCity());
+		assertNull(template.findUserSummaryByName("Nobody"));
+	}
+
+	@Test
+	public void summariesByIdsIssueOneStatementAndNoEntityTest() {
+		// Given
+		Map<UserScenario, Long> ids = persistAllScenarios();
+		List<Long> requested = new ArrayList<>(ids.values());
+		requested.add(-1L);
+
+		// When
+		List<UserSummary> summaries = QueryBudget.maxStatements(1).entitiesLoaded(0)
+				.enforce(template.getEntityManagerFactory(), () -> template.findUserSummariesByIds(requested));
+
+		// Then
+		assertEquals(requested.size(), summaries.size());
+		for (UserScenario scenario : UserScenario.values()) {
+			assertTrue(scenario.matches(summaries.get(scenario.ordinal()), scenario.getName()));
+		}
+		assertNull(summaries.get(summaries.size() - 1));
+	}
+
+	private Map<UserScenario, Long> persistAllScenarios() {
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+
+		Map<UserScenario, Long> ids = new EnumMap<>(UserScenario.class);
+		for (UserScenario scenario : UserScenario.values()) {
+			ids.put(scenario, scenario.persist(entityManager, scenario.getName()).getId());
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+		return ids;
+	}
+}
@@ -0,0 +1,147 @@
+package org.hibernate.bugs.bootstrap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.Metadata;
+import org.jboss.logging.Logger;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Keeps the factories bootstrapped by the tests open for the whole JVM, one per distinct configuration, so that the
+ * service registry, the metadata and the factory are built once instead of before every test method.  The tests
+ * reusing a factory have to reset the data themselves, see {@code JPAUnitTestCase.destroy()}.
+ * <p>
+ * Disabled by default, as a test relying on a fresh factory would see the state left by the previous ones; enable it
+ * with the {@code hibernate.bootstrap.cache} system property, e.g. {@code mvn test -Dhibernate.bootstrap.cache=true}.
+ * The factories are closed when the JVM exits, after logging how much bootstrap time the cache saved.
+ */
+public final class BootstrapCache {
+
+	public static final String ENABLED = "hibernate.bootstrap.cache";
+
+	private static final Logger LOG = Logger.getLogger( BootstrapCache.class );
+
+	private static final Map<Object, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+	private static final AtomicBoolean SHUTDOWN_HOOK_ADDED = new AtomicBoolean();
+
+	private BootstrapCache() {
+	}
+
+	public static boolean isEnabled() {
+		return Boolean.getBoolean( ENABLED );
+	}
+
+	/**
+	 * {@link Persistence#createEntityManagerFactory(String, Map)}, or the factory already created for the same
+	 * persistence unit and properties.
+	 */
+	public static EntityManagerFactory entityManagerFactory(String persistenceUnitName, Map<String, ?> properties) {
+		if ( !isEnabled() ) {
+			return Persistence.createEntityManagerFactory( persistenceUnitName, properties );
+		}
+		// Properties are compared as strings, as the tests pass the same setting as a string or as a number
+		Map<String, String> configuration = new TreeMap<>();
+		properties.forEach( (name, value) -> configuration.put( name, String.valueOf( value ) ) );
+		return lookUp( persistenceUnitName + configuration,
+				() -> Persistence.createEntityManagerFactory( persistenceUnitName, properties ) );
+	}
+
+	/**
+	 * Builds a session factory from the metadata supplied, or returns the factory already built for the same
+	 * {@code configuration}: anything with a meaningful {@code equals}, such as the list of annotated classes.
+	 */
+	public static SessionFactory sessionFactory(Object configuration, Supplier<Metadata> metadata) {
+		if ( !isEnabled() ) {
+			return metadata.get().buildSessionFactory();
+		}
+		return lookUp( configuration, () -> metadata.get().buildSessionFactory() ).unwrap( SessionFactory.class );
+	}
+
+	/**
+	 * @return whether the factory is kept open by the cache, and must not be closed by the test using it
+	 */
+	public static boolean isCached(EntityManagerFactory entityManagerFactory) {
+		for ( Entry entry : ENTRIES.values() ) {
+			if ( entry.factory == entityManagerFactory ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return how many factories were built and reused, and the bootstrap time saved by reusing them
+	 */
+	public static String report() {
+		long builds = 0;
+		long buildNanos = 0;
+		long reuses = 0;
+		long savedNanos = 0;
+		for ( Entry entry : ENTRIES.values() ) {
+			builds += entry.builds.get();
+			buildNanos += entry.buildNanos.get();
+			reuses += entry.reuses.get();
+			// Each reuse saves the average bootstrap time of its own configuration
+			savedNanos += entry.reuses.get() * entry.buildNanos.get() / Math.max( 1, entry.builds.get() );
+		}
+		return format( "{0} factories built in {1} ms, reused {2} times, saving about {3} ms of bootstrap",
+				builds,
+				TimeUnit.NANOSECONDS.toMillis( buildNanos ),
+				reuses,
+				TimeUnit.NANOSECONDS.toMillis( savedNanos ) );
+	}
+
+	private static EntityManagerFactory lookUp(Object configuration, Supplier<EntityManagerFactory> bootstrap) {
+		if ( SHUTDOWN_HOOK_ADDED.compareAndSet( false, true ) ) {
+			Runtime.getRuntime().addShutdownHook( new Thread( BootstrapCache::closeAll, "bootstrap-cache-shutdown" ) );
+		}
+		Entry entry = ENTRIES.computeIfAbsent( configuration, key -> new Entry() );
+		synchronized ( entry ) {
+			if ( entry.factory != null && entry.factory.isOpen() ) {
+				entry.reuses.incrementAndGet();
+				return entry.factory;
+			}
+			// Not built yet, or closed by a test that did not know it was shared
+			long start = System.nanoTime();
+			entry.factory = bootstrap.get();
+			entry.buildNanos.addAndGet( System.nanoTime() - start );
+			entry.builds.incrementAndGet();
+			return entry.factory;
+		}
+	}
+
+	private static void closeAll() {
+		LOG.infof( "Bootstrap cache: %s", report() );
+		List<Entry> entries = new ArrayList<>( ENTRIES.values() );
+		ENTRIES.clear();
+		for ( Entry entry : entries ) {
+			if ( entry.factory != null && entry.factory.isOpen() ) {
+				entry.factory.close();
+			}
+		}
+	}
+
+	private static final class Entry {
+
+		private volatile EntityManagerFactory factory;
+
+		private final AtomicLong builds = new AtomicLong();
+
+		private final AtomicLong buildNanos = new AtomicLong();
+
+		private final AtomicLong reuses = new AtomicLong();
+	}
+}
@@ -0,0 +1,99 @@
+package org.hibernate.bugs.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * A point-in-time copy of the hit, miss and put counts of a second-level cache region.
+ * <p>
+ * Requires {@code hibernate.generate_statistics} to be enabled; all counts are zero otherwise.
+ */
+public final class CacheRegionMetrics {
+
+	private final String regionName;
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long putCount;
+
+	private CacheRegionMetrics(CacheRegionStatistics statistics) {
+		this.regionName = statistics.getRegionName();
+		this.hitCount = statistics.getHitCount();
+		this.missCount = statistics.getMissCount();
+		this.putCount = statistics.getPutCount();
+	}
+
+	/**
+	 * @return the metrics of every region of the factory
+	 */
+	public static List<CacheRegionMetrics> of(EntityManagerFactory entityManagerFactory) {
+		Statistics statistics = entityManagerFactory.unwrap( SessionFactoryImplementor.class ).getStatistics();
+
+		List<CacheRegionMetrics> metrics = new ArrayList<>();
+		for ( String regionName : statistics.getSecondLevelCacheRegionNames() ) {
+			metrics.add( new CacheRegionMetrics( statistics.getDomainDataRegionStatistics( regionName ) ) );
+		}
+		return metrics;
+	}
+
+	/**
+	 * @return the metrics of the region caching instances of {@code entityClass}
+	 */
+	public static CacheRegionMetrics ofEntity(EntityManagerFactory entityManagerFactory, Class<?> entityClass) {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap( SessionFactoryImplementor.class );
+		String regionName = sessionFactory.getMappingMetamodel()
+				.getEntityDescriptor( entityClass )
+				.getCacheAccessStrategy()
+				.getRegion()
+				.getName();
+		return new CacheRegionMetrics( sessionFactory.getStatistics().getDomainDataRegionStatistics( regionName ) );
+	}
+
+	/**
+	 * @return the metrics of the region caching the collection {@code role}, e.g. {@code org.hibernate.entity.User.skills}
+	 */
+	public static CacheRegionMetrics ofCollection(EntityManagerFactory entityManagerFactory, String role) {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap( SessionFactoryImplementor.class );
+		String regionName = sessionFactory.getMappingMetamodel()
+				.getCollectionDescriptor( role )
+				.getCacheAccessStrategy()
+				.getRegion()
+				.getName();
+		return new CacheRegionMetrics( sessionFactory.getStatistics().getDomainDataRegionStatistics( regionName ) );
+	}
+
+	public String getRegionName() {
+		return regionName;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public long getPutCount() {
+		return putCount;
+	}
+
+	public double getHitRatio() {
+		long lookups = hitCount + missCount;
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return format( "{0}: hits={1}, misses={2}, puts={3}", regionName, hitCount, missCount, putCount );
+	}
+}
@@ -0,0 +1,133 @@
+package org.hibernate.bugs.cache;
+
+import java.util.Map;
+
+import org.hibernate.Cache;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserDetail;
+import org.hibernate.entity.UserSkill;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Keeps the second-level cache consistent with the {@code @Where} clauses of {@link UserDetail} and {@link UserSkill}.
+ * <p>
+ * {@code User.skills} is the inverse side of {@code UserSkill.user}, and its cache entry lists the skills that were
+ * live when it was loaded.  Inserting a skill, soft-deleting it or moving it to another user never touches the
+ * collection itself, so Hibernate would keep serving that entry.  The same goes for the cached {@link User} when its
+ * active detail changes.  This integrator evicts the affected entries whenever a detail or a skill is written, and
+ * once more after the transaction completes, in case a concurrent reader cached the old state in between.
+ * <p>
+ * Registered through {@code META-INF/services/org.hibernate.integrator.spi.Integrator}, and off unless
+ * {@code hibernate.cache.filtered_association_invalidation} is {@code true}: it only knows the entities of this
+ * template.
+ */
+public class FilteredAssociationCacheInvalidator
+		implements Integrator, PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	public static final String ENABLED = "hibernate.cache.filtered_association_invalidation";
+
+	private static final String SKILLS_ROLE = User.class.getName() + ".skills";
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+		Map<String, Object> settings = sessionFactory.getServiceRegistry()
+				.getService( ConfigurationService.class )
+				.getSettings();
+		if ( !ConfigurationHelper.getBoolean( ENABLED, settings, false ) ) {
+			return;
+		}
+
+		EventListenerRegistry listenerRegistry = sessionFactory.getServiceRegistry()
+				.getService( EventListenerRegistry.class );
+		listenerRegistry.appendListeners( EventType.POST_INSERT, this );
+		listenerRegistry.appendListeners( EventType.POST_UPDATE, this );
+		listenerRegistry.appendListeners( EventType.POST_DELETE, this );
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		evictOwners( event.getSession(), event.getEntity(), event.getPersister(), null );
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		evictOwners( event.getSession(), event.getEntity(), event.getPersister(), event.getOldState() );
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		evictOwners( event.getSession(), event.getEntity(), event.getPersister(), event.getDeletedState() );
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	private void evictOwners(EventSource session, Object entity, EntityPersister persister, Object[] previousState) {
+		User owner;
+		if ( entity instanceof UserSkill ) {
+			owner = ( (UserSkill) entity ).getUser();
+		}
+		else if ( entity instanceof UserDetail ) {
+			owner = ( (UserDetail) entity ).getUser();
+		}
+		else {
+			return;
+		}
+
+		boolean skill = entity instanceof UserSkill;
+		evictOwner( session, skill, owner );
+
+		if ( previousState != null ) {
+			// The skill or detail may have been moved away from another user
+			String[] propertyNames = persister.getPropertyNames();
+			for ( int i = 0; i < propertyNames.length; i++ ) {
+				if ( "user".equals( propertyNames[i] ) && previousState[i] != owner ) {
+					evictOwner( session, skill, (User) previousState[i] );
+				}
+			}
+		}
+	}
+
+	private void evictOwner(EventSource session, boolean skill, User owner) {
+		if ( owner == null || owner.getId() == null ) {
+			return;
+		}
+
+		Object ownerId = owner.getId();
+		evict( session.getFactory().getCache(), skill, ownerId );
+		session.getActionQueue().registerProcess(
+				(success, completedSession) -> evict( completedSession.getFactory().getCache(), skill, ownerId )
+		);
+	}
+
+	private static void evict(Cache cache, boolean skill, Object ownerId) {
+		if ( skill ) {
+			cache.evictCollectionData( SKILLS_ROLE, ownerId );
+		}
+		else {
+			cache.evictEntityData( User.class, ownerId );
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package org.hibernate.bugs.cost;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+
+/**
+ * What an operation cost the database: the statements it prepared, with their SQL, and the entities and collections
+ * it loaded.  When the persistence unit uses {@link CountingConnectionProvider}, also the JDBC round-trips, the rows
+ * fetched and the time result sets stayed open; otherwise these are {@code -1}.
+ * <p>
+ * The SQL is recorded per thread by {@link RecordingStatementInspector}, while the other figures are deltas of
+ * factory-wide counters: work done by other threads during the recording is counted too.
+ */
+public class OperationCost {
+
+	public static final long NOT_COUNTED = -1;
+
+	private final List<String> statements;
+
+	private final long roundTrips;
+
+	private final long rows;
+
+	private final long entitiesLoaded;
+
+	private final long collectionsLoaded;
+
+	private final long resultSetNanos;
+
+	private final long elapsedNanos;
+
+	private OperationCost(List<String> statements, long roundTrips, long rows, long entitiesLoaded,
+			long collectionsLoaded, long resultSetNanos, long elapsedNanos) {
+		this.statements = Collections.unmodifiableList( statements );
+		this.roundTrips = roundTrips;
+		this.rows = rows;
+		this.entitiesLoaded = entitiesLoaded;
+		this.collectionsLoaded = collectionsLoaded;
+		this.resultSetNanos = resultSetNanos;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Statistics and the {@link RecordingStatementInspector} cost every session something, so the templates leave them
+	 * off: add these settings to the configuration of the factories whose operations are measured.
+	 *
+	 * @return the settings that {@link #start(EntityManagerFactory)} requires
+	 */
+	public static Map<String, Object> settings() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put( "hibernate.generate_statistics", "true" );
+		settings.put( "hibernate.session_factory.statement_inspector", RecordingStatementInspector.class.getName() );
+		return settings;
+	}
+
+	/**
+	 * Starts recording the cost of whatever the current thread does with the given factory, until
+	 * {@link Recording#stop()}, or the end of a try-with-resources block.
+	 *
+	 * @throws IllegalStateException if statistics or the {@link RecordingStatementInspector} are not enabled, or if
+	 * the current thread is already recording
+	 */
+	public static Recording start(EntityManagerFactory entityManagerFactory) {
+		return new Recording( entityManagerFactory );
+	}
+
+	public static OperationCost measure(EntityManagerFactory entityManagerFactory, Runnable operation) {
+		try ( Recording recording = start( entityManagerFactory ) ) {
+			operation.run();
+			return recording.stop();
+		}
+	}
+
+	/**
+	 * @return the SQL of every statement prepared, in order
+	 */
+	public List<String> getStatements() {
+		return statements;
+	}
+
+	public int getStatementCount() {
+		return statements.size();
+	}
+
+	/**
+	 * @return the statements prepared more than once, with their counts: the signature of an N+1 select
+	 */
+	public Map<String, Integer> getRepeatedStatements() {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for ( String sql : statements ) {
+			counts.merge( sql, 1, Integer::sum );
+		}
+		counts.values().removeIf( count -> count < 2 );
+		return counts;
+	}
+
+	/**
+	 * @return the number of statement executions, each batch counting as one, or {@link #NOT_COUNTED}
+	 */
+	public long getRoundTrips() {
+		return roundTrips;
+	}
+
+	/**
+	 * @return the number of result set rows read, or {@link #NOT_COUNTED}
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	public long getEntitiesLoaded() {
+		return entitiesLoaded;
+	}
+
+	public long getCollectionsLoaded() {
+		return collectionsLoaded;
+	}
+
+	/**
+	 * @return the time result sets were open, from their query execution to their closing, or {@link #NOT_COUNTED}
+	 */
+	public long getResultSetNanos() {
+		return resultSetNanos;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder description = new StringBuilder()
+				.append( statements.size() ).append( " statements, " )
+				.append( roundTrips ).append( " round-trips, " )
+				.append( rows ).append( " rows, " )
+				.append( entitiesLoaded ).append( " entities and " )
+				.append( collectionsLoaded ).append( " collections loaded, " )
+				.append( resultSetNanos == NOT_COUNTED ? NOT_COUNTED : TimeUnit.NANOSECONDS.toMicros( resultSetNanos ) )
+				.append( "us in result sets, " )
+				.append( TimeUnit.NANOSECONDS.toMicros( elapsedNanos ) ).append( "us in total" );
+		for ( String sql : statements ) {
+			description.append( System.lineSeparator() ).append( "    " ).append( sql );
+		}
+		return description.toString();
+	}
+
+	/**
+	 * Closing a recording stops it, so that the thread is never left recording, even when the operation fails.
+	 */
+	public static class Recording implements AutoCloseable {
+
+		private final Statistics statistics;
+
+		private final CountingConnectionProvider connectionProvider;
+
+		private final long roundTripsBefore;
+
+		private final long rowsBefore;
+
+		private final long resultSetNanosBefore;
+
+		private final long entitiesBefore;
+
+		private final long collectionsBefore;
+
+		private final long start;
+
+		private OperationCost cost;
+
+		private Recording(EntityManagerFactory entityManagerFactory) {
+			SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap( SessionFactoryImplementor.class );
+			if ( !( sessionFactory.getSessionFactoryOptions().getStatementInspector() instanceof RecordingStatementInspector ) ) {
+				throw new IllegalStateException( "Set hibernate.session_factory.statement_inspector to "
+						+ RecordingStatementInspector.class.getName() + ", see OperationCost.settings()" );
+			}
+			statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+			if ( !statistics.isStatisticsEnabled() ) {
+				throw new IllegalStateException( "Set hibernate.generate_statistics to true, see OperationCost.settings()" );
+			}
+			if ( RecordingStatementInspector.isRecording() ) {
+				throw new IllegalStateException( "This thread is already recording" );
+			}
+
+			ConnectionProvider provider = sessionFactory.getServiceRegistry().getService( ConnectionProvider.class );
+			connectionProvider = provider instanceof CountingConnectionProvider
+					? (CountingConnectionProvider) provider
+					: null;
+
+			roundTripsBefore = connectionProvider == null ? 0 : connectionProvider.getExecutionCount();
+			rowsBefore = connectionProvider == null ? 0 : connectionProvider.getRowCount();
+			resultSetNanosBefore = connectionProvider == null ? 0 : connectionProvider.getResultSetNanos();
+			entitiesBefore = statistics.getEntityLoadCount();
+			collectionsBefore = statistics.getCollectionLoadCount();
+
+			RecordingStatementInspector.start();
+			start = System.nanoTime();
+		}
+
+		/**
+		 * Stops the recording; calling it again returns the same cost.
+		 */
+		public OperationCost stop() {
+			if ( cost == null ) {
+				long elapsed = System.nanoTime() - start;
+				cost = new OperationCost(
+						RecordingStatementInspector.stop(),
+						connectionProvider == null ? NOT_COUNTED : connectionProvider.getExecutionCount() - roundTripsBefore,
+						connectionProvider == null ? NOT_COUNTED : connectionProvider.getRowCount() - rowsBefore,
+						statistics.getEntityLoadCount() - entitiesBefore,
+						statistics.getCollectionLoadCount() - collectionsBefore,
+						connectionProvider == null ? NOT_COUNTED : connectionProvider.getResultSetNanos() - resultSetNanosBefore,
+						elapsed
+				);
+			}
+			return cost;
+		}
+
+		@Override
+		public void close() {
+			stop();
+		}
+	}
+}
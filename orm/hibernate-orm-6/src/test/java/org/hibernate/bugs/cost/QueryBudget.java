@@ -0,0 +1,159 @@
+package org.hibernate.bugs.cost;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Limits on what an operation may cost the database, for tests to fail as soon as a change makes a finder issue more
+ * statements than it should, in particular an N+1 select:
+ * <pre>
+ * User user = QueryBudget.maxStatements( 1 ).enforce( entityManagerFactory,
+ *         () -&gt; findUserByIdUsingEntityGraph( id ) );
+ * </pre>
+ * or, for operations that are more than a call, as a recording checked when it is closed:
+ * <pre>
+ * try ( QueryBudget budget = QueryBudget.maxStatements( 1 ).start( entityManagerFactory ) ) {
+ *     user = findUserByIdUsingEntityGraph( id );
+ * }
+ * </pre>
+ * Unless {@link #allowRepeatedStatements()} is called, preparing the same SQL twice is over budget too.  The factory
+ * needs the {@link OperationCost#settings() settings} of {@link OperationCost}.
+ */
+public class QueryBudget implements AutoCloseable {
+
+	private int maxStatements = Integer.MAX_VALUE;
+
+	private long maxRoundTrips = Long.MAX_VALUE;
+
+	private long maxRows = Long.MAX_VALUE;
+
+	private long maxEntitiesLoaded = Long.MAX_VALUE;
+
+	private boolean allowRepeatedStatements;
+
+	private OperationCost.Recording recording;
+
+	private QueryBudget() {
+	}
+
+	public static QueryBudget unlimited() {
+		return new QueryBudget();
+	}
+
+	public static QueryBudget maxStatements(int maxStatements) {
+		return unlimited().statements( maxStatements );
+	}
+
+	public QueryBudget statements(int maxStatements) {
+		this.maxStatements = maxStatements;
+		return this;
+	}
+
+	/**
+	 * Requires {@link org.hibernate.bugs.jdbc.CountingConnectionProvider}.
+	 */
+	public QueryBudget roundTrips(long maxRoundTrips) {
+		this.maxRoundTrips = maxRoundTrips;
+		return this;
+	}
+
+	/**
+	 * Requires {@link org.hibernate.bugs.jdbc.CountingConnectionProvider}.
+	 */
+	public QueryBudget rows(long maxRows) {
+		this.maxRows = maxRows;
+		return this;
+	}
+
+	public QueryBudget entitiesLoaded(long maxEntitiesLoaded) {
+		this.maxEntitiesLoaded = maxEntitiesLoaded;
+		return this;
+	}
+
+	public QueryBudget allowRepeatedStatements() {
+		this.allowRepeatedStatements = true;
+		return this;
+	}
+
+	/**
+	 * Runs the operation and checks its cost.
+	 *
+	 * @return the result of the operation
+	 * @throws AssertionError if the operation went over budget, listing the statements it prepared
+	 */
+	public <T> T enforce(EntityManagerFactory entityManagerFactory, Supplier<T> operation) {
+		try ( QueryBudget budget = start( entityManagerFactory ) ) {
+			return operation.get();
+		}
+	}
+
+	/**
+	 * Starts recording what the current thread does with the given factory, until the budget is closed.
+	 *
+	 * @throws IllegalStateException if this budget is already recording, or if the factory does not record costs
+	 */
+	public QueryBudget start(EntityManagerFactory entityManagerFactory) {
+		if ( recording != null ) {
+			throw new IllegalStateException( "This budget is already recording" );
+		}
+		recording = OperationCost.start( entityManagerFactory );
+		return this;
+	}
+
+	/**
+	 * Stops the recording and checks its cost.
+	 *
+	 * @throws AssertionError if the operation went over budget, listing the statements it prepared
+	 */
+	@Override
+	public void close() {
+		if ( recording == null ) {
+			throw new IllegalStateException( "This budget is not recording" );
+		}
+		OperationCost cost = recording.stop();
+		recording = null;
+		check( cost );
+	}
+
+	/**
+	 * @throws AssertionError if {@code cost} is over budget, listing the statements prepared
+	 */
+	public void check(OperationCost cost) {
+		List<String> violations = new ArrayList<>();
+		if ( cost.getStatementCount() > maxStatements ) {
+			violations.add( "at most " + maxStatements + " statements" );
+		}
+		checkCounted( violations, "round-trips", cost.getRoundTrips(), maxRoundTrips );
+		checkCounted( violations, "rows", cost.getRows(), maxRows );
+		if ( cost.getEntitiesLoaded() > maxEntitiesLoaded ) {
+			violations.add( "at most " + maxEntitiesLoaded + " entities loaded" );
+		}
+		if ( !allowRepeatedStatements ) {
+			Map<String, Integer> repeated = cost.getRepeatedStatements();
+			if ( !repeated.isEmpty() ) {
+				violations.add( "no repeated statement (N+1 select?), but " + repeated.values()
+						+ " executions of " + repeated.keySet() );
+			}
+		}
+
+		if ( !violations.isEmpty() ) {
+			throw new AssertionError( "Expected " + String.join( ", ", violations ) + "; was " + cost );
+		}
+	}
+
+	private static void checkCounted(List<String> violations, String name, long actual, long max) {
+		if ( max == Long.MAX_VALUE ) {
+			return;
+		}
+		if ( actual == OperationCost.NOT_COUNTED ) {
+			violations.add( "at most " + max + " " + name + ", which are only counted by CountingConnectionProvider" );
+		}
+		else if ( actual > max ) {
+			violations.add( "at most " + max + " " + name );
+		}
+	}
+}
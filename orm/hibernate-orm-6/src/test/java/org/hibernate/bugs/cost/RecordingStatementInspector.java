@@ -0,0 +1,40 @@
+package org.hibernate.bugs.cost;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL of every statement Hibernate prepares while an {@link OperationCost.Recording} is in progress on the
+ * same thread.  It leaves the SQL untouched, and costs a thread-local lookup when nothing is recording.
+ * <p>
+ * Enable it with {@code hibernate.session_factory.statement_inspector}.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+	static void start() {
+		RECORDED.set( new ArrayList<>() );
+	}
+
+	static boolean isRecording() {
+		return RECORDED.get() != null;
+	}
+
+	static List<String> stop() {
+		List<String> statements = RECORDED.get();
+		RECORDED.remove();
+		return statements;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		List<String> statements = RECORDED.get();
+		if ( statements != null ) {
+			statements.add( sql );
+		}
+		return sql;
+	}
+}
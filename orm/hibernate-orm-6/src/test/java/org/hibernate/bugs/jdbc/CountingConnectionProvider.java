@@ -0,0 +1,151 @@
+package org.hibernate.bugs.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Hibernate's built-in connection pool, counting the JDBC traffic that goes through it: every statement execution
+ * is a round-trip to the database, and every {@link ResultSet#next()} returning {@code true} is a row fetched.
+ * The number of statements added to each executed batch is recorded too, to check how well the inserts and updates
+ * were actually batched, as is the time result sets stay open: the time spent reading and processing them.
+ * <p>
+ * Enable it with {@code hibernate.connection.provider_class}, then look it up with {@link #from(EntityManagerFactory)}.
+ */
+public class CountingConnectionProvider extends DriverManagerConnectionProviderImpl {
+
+	private final LongAdder executions = new LongAdder();
+
+	private final LongAdder rows = new LongAdder();
+
+	private final LongAdder resultSetNanos = new LongAdder();
+
+	private final Histogram batchSizes = new ConcurrentHistogram( 3 );
+
+	public static CountingConnectionProvider from(EntityManagerFactory entityManagerFactory) {
+		return entityManagerFactory.unwrap( SessionFactoryImplementor.class )
+				.getServiceRegistry()
+				.getService( ConnectionProvider.class )
+				.unwrap( CountingConnectionProvider.class );
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return (Connection) wrap( Connection.class, super.getConnection() );
+	}
+
+	@Override
+	public void closeConnection(Connection connection) throws SQLException {
+		// Hand the pool back the connection it gave out, not our proxy
+		if ( Proxy.isProxyClass( connection.getClass() )
+				&& Proxy.getInvocationHandler( connection ) instanceof Interceptor ) {
+			connection = (Connection) ( (Interceptor) Proxy.getInvocationHandler( connection ) ).target;
+		}
+		super.closeConnection( connection );
+	}
+
+	/**
+	 * @return the number of statements executed so far, batches counting as one
+	 */
+	public long getExecutionCount() {
+		return executions.sum();
+	}
+
+	/**
+	 * @return the number of result set rows read so far
+	 */
+	public long getRowCount() {
+		return rows.sum();
+	}
+
+	/**
+	 * @return the time result sets were open so far, from the execution of their query to their closing
+	 */
+	public long getResultSetNanos() {
+		return resultSetNanos.sum();
+	}
+
+	/**
+	 * @return the number of statements in each batch executed so far
+	 */
+	public Histogram getBatchSizes() {
+		return batchSizes;
+	}
+
+	private Object wrap(Class<?> type, Object target) {
+		return Proxy.newProxyInstance( getClass().getClassLoader(), new Class<?>[] { type }, new Interceptor( target ) );
+	}
+
+	private class Interceptor implements InvocationHandler {
+
+		private final Object target;
+
+		private final long createdAt = System.nanoTime();
+
+		// A JDBC statement is only used by one thread at a time, so this needs no synchronization
+		private int pendingBatchSize;
+
+		private boolean closed;
+
+		private Interceptor(Object target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result;
+			try {
+				result = method.invoke( target, args );
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+			if ( target instanceof Connection && result instanceof Statement ) {
+				// createStatement, prepareStatement or prepareCall: keep the most specific interface
+				return wrap( method.getReturnType(), result );
+			}
+			if ( target instanceof Statement ) {
+				if ( method.getName().startsWith( "execute" ) ) {
+					executions.increment();
+				}
+				if ( method.getName().equals( "addBatch" ) ) {
+					pendingBatchSize++;
+				}
+				else if ( method.getName().equals( "executeBatch" ) ) {
+					batchSizes.recordValue( pendingBatchSize );
+					pendingBatchSize = 0;
+				}
+				else if ( method.getName().equals( "clearBatch" ) ) {
+					pendingBatchSize = 0;
+				}
+				if ( result instanceof ResultSet ) {
+					return wrap( ResultSet.class, result );
+				}
+			}
+			if ( target instanceof ResultSet ) {
+				if ( method.getName().equals( "next" ) && Boolean.TRUE.equals( result ) ) {
+					rows.increment();
+				}
+				else if ( method.getName().equals( "close" ) && !closed ) {
+					closed = true;
+					resultSetNanos.add( System.nanoTime() - createdAt );
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package org.hibernate.bugs.lazy;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Registers a {@link NPlusOneDetector} with every session factory, configured with:
+ * <ul>
+ * <li>{@code hibernate.n_plus_one.threshold}: the number of initializations of an association allowed in one
+ * session, 5 by default</li>
+ * <li>{@code hibernate.n_plus_one.action}: {@code off} (the default), {@code log} or {@code fail}</li>
+ * </ul>
+ * Registered through {@code META-INF/services/org.hibernate.integrator.spi.Integrator}.
+ */
+public class NPlusOneIntegrator implements Integrator {
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+		Map<String, Object> settings = sessionFactory.getServiceRegistry()
+				.getService( ConfigurationService.class )
+				.getSettings();
+		NPlusOneDetector.Action action = NPlusOneDetector.Action.valueOf( ConfigurationHelper.getString(
+				NPlusOneDetector.ACTION, settings, NPlusOneDetector.Action.OFF.name() ).trim().toUpperCase( Locale.ROOT ) );
+		if ( action == NPlusOneDetector.Action.OFF ) {
+			return;
+		}
+
+		NPlusOneDetector detector = new NPlusOneDetector(
+				ConfigurationHelper.getInt( NPlusOneDetector.THRESHOLD, settings, NPlusOneDetector.DEFAULT_THRESHOLD ),
+				action
+		);
+		EventListenerRegistry listenerRegistry = sessionFactory.getServiceRegistry()
+				.getService( EventListenerRegistry.class );
+		listenerRegistry.appendListeners( EventType.INIT_COLLECTION, detector );
+		listenerRegistry.appendListeners( EventType.LOAD, detector );
+		NPlusOneDetector.register( sessionFactory, detector );
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		NPlusOneDetector.unregister( sessionFactory );
+	}
+}
@@ -0,0 +1,14 @@
+package org.hibernate.bugs.lazy;
+
+import org.hibernate.HibernateException;
+
+/**
+ * Thrown by the lazy initialization that takes an association over the threshold of {@link NPlusOneDetector}, when
+ * its action is {@link NPlusOneDetector.Action#FAIL}.
+ */
+public class NPlusOneSelectException extends HibernateException {
+
+	public NPlusOneSelectException(String message) {
+		super( message );
+	}
+}
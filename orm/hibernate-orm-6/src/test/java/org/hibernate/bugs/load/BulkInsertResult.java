@@ -0,0 +1,84 @@
+package org.hibernate.bugs.load;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * What a {@link BulkSeeder} or {@link CsvUserImporter} run inserted, and at what rate.
+ */
+public class BulkInsertResult {
+
+	private final int users;
+
+	private final long rows;
+
+	private final long statements;
+
+	private final long elapsedNanos;
+
+	private final Histogram batchSizes;
+
+	BulkInsertResult(int users, long rows, long statements, long elapsedNanos, Histogram batchSizes) {
+		this.users = users;
+		this.rows = rows;
+		this.statements = statements;
+		this.elapsedNanos = elapsedNanos;
+		this.batchSizes = batchSizes;
+	}
+
+	public int getUsers() {
+		return users;
+	}
+
+	/**
+	 * @return the number of rows inserted, users, details and skills together
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * @return the number of statements executed, each batch counting as one
+	 */
+	public long getStatements() {
+		return statements;
+	}
+
+	public double getStatementsPerSecond() {
+		return statements * 1e9 / elapsedNanos;
+	}
+
+	public double getRowsPerSecond() {
+		return rows * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * @return the number of statements in each executed batch, empty if nothing was batched
+	 */
+	public Histogram getBatchSizes() {
+		return batchSizes;
+	}
+
+	public void print(PrintStream out) {
+		out.printf( "%d users, %d rows in %d ms: %d statements, %.0f statements/s, %.0f rows/s%n",
+				users,
+				rows,
+				TimeUnit.NANOSECONDS.toMillis( elapsedNanos ),
+				statements,
+				getStatementsPerSecond(),
+				getRowsPerSecond() );
+		if ( batchSizes.getTotalCount() == 0 ) {
+			out.println( "  no statement was batched" );
+		}
+		else {
+			out.printf( "  %d batches, size min=%d p50=%d mean=%.1f max=%d%n",
+					batchSizes.getTotalCount(),
+					batchSizes.getMinValue(),
+					batchSizes.getValueAtPercentile( 50 ),
+					batchSizes.getMean(),
+					batchSizes.getMaxValue() );
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.hibernate.bugs.load;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Persists large numbers of {@link UserScenario} copies through the entity mappings, flushing and clearing the
+ * persistence context every {@code hibernate.jdbc.batch_size} users so that memory use stays flat.
+ * <p>
+ * The JDBC statements are counted by {@link CountingConnectionProvider}, which must be the connection provider of
+ * the persistence unit, as it is in "templatePU-batched".  The {@link BulkInsertResult} tells how many statements per
+ * second were executed and how full the batches actually were: with IDENTITY ids, nothing is batched.
+ *
+ * @see CsvUserImporter
+ */
+public class BulkSeeder {
+
+	private static final int USERS_PER_TRANSACTION = 10_000;
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	public BulkSeeder(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Persists {@code userCount} users, cycling through the scenarios, and named after their scenario and their
+	 * index: "Alice-0", "Bob-1" and so on.
+	 */
+	public BulkInsertResult seed(int userCount) {
+		CountingConnectionProvider connectionProvider = CountingConnectionProvider.from( entityManagerFactory );
+		int batchSize = Math.max( 1, entityManagerFactory.unwrap( SessionFactoryImplementor.class )
+				.getSessionFactoryOptions()
+				.getJdbcBatchSize() );
+
+		Histogram batchSizesBefore = connectionProvider.getBatchSizes().copy();
+		long executionsBefore = connectionProvider.getExecutionCount();
+		long rows = 0;
+		long start = System.nanoTime();
+
+		UserScenario[] scenarios = UserScenario.values();
+		Session session = entityManagerFactory.createEntityManager().unwrap( Session.class );
+		try {
+			// Filling the second-level cache with every seeded row would only cost memory
+			session.setCacheMode( CacheMode.IGNORE );
+			session.getTransaction().begin();
+
+			for ( int i = 0; i < userCount; i++ ) {
+				UserScenario scenario = scenarios[i % scenarios.length];
+				scenario.persist( session, scenario.getName() + "-" + i );
+				rows += scenario.getRowCount();
+
+				if ( ( i + 1 ) % batchSize == 0 ) {
+					session.flush();
+					session.clear();
+				}
+				if ( ( i + 1 ) % USERS_PER_TRANSACTION == 0 ) {
+					session.getTransaction().commit();
+					session.getTransaction().begin();
+				}
+			}
+
+			session.getTransaction().commit();
+		}
+		finally {
+			if ( session.getTransaction().isActive() ) {
+				session.getTransaction().rollback();
+			}
+			session.close();
+		}
+
+		Histogram batchSizes = connectionProvider.getBatchSizes().copy();
+		batchSizes.subtract( batchSizesBefore );
+		return new BulkInsertResult( userCount, rows, connectionProvider.getExecutionCount() - executionsBefore,
+				System.nanoTime() - start, batchSizes );
+	}
+}
@@ -0,0 +1,242 @@
+package org.hibernate.bugs.load;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.bugs.jdbc.CountingConnectionProvider;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserDetail;
+import org.hibernate.entity.UserSkill;
+
+/**
+ * Streams users, details and skills from a CSV file into the database through a {@link StatelessSession}: nothing is
+ * kept in a persistence context, and only the current chunk of {@code batchSize} users is held in memory, so files of
+ * any size import with a constant heap.
+ * <p>
+ * Each line is a user, or a detail or skill of the last user before it.  Fields are separated by commas, without
+ * quoting, and flags are either {@code true} or {@code false}:
+ * <pre>
+ * U,Grace
+ * D,Vienna,false
+ * D,Barcelona,true
+ * S,PHP,false
+ * S,Swift,true
+ * </pre>
+ * Only CSV is read: the template has no JSON parser to read JSON Lines with, and a flat, unquoted format is enough for
+ * the names and cities of the scenarios.
+ * <p>
+ * A stateless session executes the pending JDBC batch whenever it inserts another entity type, so each chunk is
+ * inserted one entity type at a time.  Batching also needs ids that are not IDENTITY columns, as in
+ * "templatePU-batched".  As with {@link BulkSeeder}, the statements are counted by {@link CountingConnectionProvider}.
+ */
+public class CsvUserImporter {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private int batchSize = 50;
+
+	private int commitInterval = 10_000;
+
+	public CsvUserImporter(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * @param batchSize the number of users read and inserted together, and the JDBC batch size
+	 */
+	public CsvUserImporter batchSize(int batchSize) {
+		if ( batchSize < 1 ) {
+			throw new IllegalArgumentException( "batchSize must be positive, was " + batchSize );
+		}
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	/**
+	 * @param commitInterval the number of rows inserted per transaction, rounded up to whole chunks
+	 */
+	public CsvUserImporter commitInterval(int commitInterval) {
+		if ( commitInterval < 1 ) {
+			throw new IllegalArgumentException( "commitInterval must be positive, was " + commitInterval );
+		}
+		this.commitInterval = commitInterval;
+		return this;
+	}
+
+	public BulkInsertResult importFrom(Path file) throws IOException {
+		CountingConnectionProvider connectionProvider = CountingConnectionProvider.from( entityManagerFactory );
+		Histogram batchSizesBefore = connectionProvider.getBatchSizes().copy();
+		long executionsBefore = connectionProvider.getExecutionCount();
+		long start = System.nanoTime();
+
+		Chunk chunk = new Chunk();
+		int users = 0;
+		long rows = 0;
+		long uncommittedRows = 0;
+
+		StatelessSession session = entityManagerFactory.unwrap( SessionFactory.class ).openStatelessSession();
+		try ( BufferedReader reader = Files.newBufferedReader( file, StandardCharsets.UTF_8 ) ) {
+			session.setJdbcBatchSize( batchSize );
+			session.beginTransaction();
+
+			String line;
+			int lineNumber = 0;
+			while ( ( line = reader.readLine() ) != null ) {
+				lineNumber++;
+				if ( line.isEmpty() ) {
+					continue;
+				}
+				boolean newUser = line.startsWith( "U," );
+				if ( newUser && chunk.users.size() == batchSize ) {
+					uncommittedRows += chunk.insert( session );
+					if ( uncommittedRows >= commitInterval ) {
+						session.getTransaction().commit();
+						session.beginTransaction();
+						rows += uncommittedRows;
+						uncommittedRows = 0;
+					}
+				}
+				try {
+					chunk.add( line.split( ",", -1 ) );
+				}
+				catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException( "Malformed line " + lineNumber + " in " + file + ": " + line, e );
+				}
+				if ( newUser ) {
+					users++;
+				}
+			}
+
+			uncommittedRows += chunk.insert( session );
+			session.getTransaction().commit();
+			rows += uncommittedRows;
+		}
+		finally {
+			if ( session.getTransaction().isActive() ) {
+				session.getTransaction().rollback();
+			}
+			session.close();
+		}
+
+		Histogram batchSizes = connectionProvider.getBatchSizes().copy();
+		batchSizes.subtract( batchSizesBefore );
+		return new BulkInsertResult( users, rows, connectionProvider.getExecutionCount() - executionsBefore,
+				System.nanoTime() - start, batchSizes );
+	}
+
+	/**
+	 * Writes {@code userCount} users in the format read by {@link #importFrom(Path)}, cycling through the scenarios
+	 * and named as {@link BulkSeeder#seed(int)} names them.
+	 */
+	public static void writeScenarios(Path file, int userCount) throws IOException {
+		UserScenario[] scenarios = UserScenario.values();
+		try ( BufferedWriter writer = Files.newBufferedWriter( file, StandardCharsets.UTF_8 ) ) {
+			for ( int i = 0; i < userCount; i++ ) {
+				UserScenario scenario = scenarios[i % scenarios.length];
+				writer.write( "U," + scenario.getName() + "-" + i );
+				writer.newLine();
+				for ( UserDetail detail : scenario.getDetails() ) {
+					writer.write( "D," + detail.getCity() + "," + detail.getActive() );
+					writer.newLine();
+				}
+				for ( UserSkill skill : scenario.getSkills() ) {
+					writer.write( "S," + skill.getSkillName() + "," + skill.getDeleted() );
+					writer.newLine();
+				}
+			}
+		}
+	}
+
+	private static class Chunk {
+
+		private final List<User> users = new ArrayList<>();
+
+		private final List<UserDetail> details = new ArrayList<>();
+
+		private final List<UserSkill> skills = new ArrayList<>();
+
+		private void add(String[] fields) {
+			User user = users.isEmpty() ? null : users.get( users.size() - 1 );
+			switch ( fields[0] ) {
+				case "U":
+					if ( fields.length != 2 ) {
+						throw new IllegalArgumentException( "Expected a user name" );
+					}
+					user = new User();
+					user.setName( fields[1] );
+					users.add( user );
+					break;
+				case "D":
+					if ( fields.length != 3 ) {
+						throw new IllegalArgumentException( "Expected a city and an active flag" );
+					}
+					if ( user == null ) {
+						throw new IllegalArgumentException( "Expected a user before the detail" );
+					}
+					UserDetail detail = new UserDetail();
+					detail.setCity( fields[1] );
+					detail.setActive( parseFlag( fields[2] ) );
+					detail.setUser( user );
+					details.add( detail );
+					break;
+				case "S":
+					if ( fields.length != 3 ) {
+						throw new IllegalArgumentException( "Expected a skill name and a deleted flag" );
+					}
+					if ( user == null ) {
+						throw new IllegalArgumentException( "Expected a user before the skill" );
+					}
+					UserSkill skill = new UserSkill();
+					skill.setSkillName( fields[1] );
+					skill.setDeleted( parseFlag( fields[2] ) );
+					skill.setUser( user );
+					skills.add( skill );
+					break;
+				default:
+					throw new IllegalArgumentException( "Unknown record type " + fields[0] );
+			}
+		}
+
+		/**
+		 * Unlike {@link Boolean#parseBoolean(String)}, which reads anything but {@code true} as {@code false}, rejects
+		 * the flags that are neither.
+		 */
+		private static boolean parseFlag(String field) {
+			switch ( field ) {
+				case "true":
+					return true;
+				case "false":
+					return false;
+				default:
+					throw new IllegalArgumentException( "Expected true or false, was '" + field + "'" );
+			}
+		}
+
+		/**
+		 * Inserts the users first, for the details and skills to reference their ids, then empties the chunk.
+		 *
+		 * @return the number of rows inserted
+		 */
+		private long insert(StatelessSession session) {
+			users.forEach( session::insert );
+			details.forEach( session::insert );
+			skills.forEach( session::insert );
+
+			long rows = users.size() + details.size() + skills.size();
+			users.clear();
+			details.clear();
+			skills.clear();
+			return rows;
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package org.hibernate.bugs.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.entity.User;
+
+/**
+ * Replays the {@link UserScenario scenarios} of {@link JPAUnitTestCase} from many threads at once, for a fixed
+ * duration, to reproduce contention problems that single-threaded tests cannot show.
+ * <p>
+ * Each thread loops over a random mix of operations: reads look up one of the seeded users with the entity-graph
+ * finders and check it against its scenario, writes persist a new copy of a scenario.  The resulting
+ * {@link LoadReport} has the throughput, latency percentiles, errors and mismatches of the run.
+ * <p>
+ * Virtual threads need a Java 21 runtime; the template itself compiles for Java 11, so they are created reflectively.
+ */
+public class LoadDriver {
+
+	public enum Operation {
+		READ_BY_ID,
+		READ_BY_NAME,
+		WRITE
+	}
+
+	private final JPAUnitTestCase template;
+
+	private final AtomicLong writeSequence = new AtomicLong();
+
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private boolean virtualThreads;
+
+	private double readRatio = 0.8;
+
+	private UserScenario[] scenarios = UserScenario.values();
+
+	private int copiesPerScenario = 100;
+
+	private Duration warmup = Duration.ZERO;
+
+	private Duration duration = Duration.ofSeconds( 10 );
+
+	private long[] seededIds;
+
+	private String[] seededNames;
+
+	private UserScenario[] seededScenarios;
+
+	public LoadDriver(JPAUnitTestCase template) {
+		this.template = template;
+	}
+
+	public LoadDriver threads(int threads) {
+		if ( threads < 1 ) {
+			throw new IllegalArgumentException( "threads must be positive, was " + threads );
+		}
+		this.threads = threads;
+		return this;
+	}
+
+	public LoadDriver virtualThreads(boolean virtualThreads) {
+		if ( virtualThreads && !supportsVirtualThreads() ) {
+			throw new UnsupportedOperationException( "Virtual threads need Java 21 or later, running on "
+					+ Runtime.version() );
+		}
+		this.virtualThreads = virtualThreads;
+		return this;
+	}
+
+	/**
+	 * @param readRatio the fraction of operations that are reads, between 0 (only writes) and 1 (only reads)
+	 */
+	public LoadDriver readRatio(double readRatio) {
+		if ( readRatio < 0 || readRatio > 1 ) {
+			throw new IllegalArgumentException( "readRatio must be between 0 and 1, was " + readRatio );
+		}
+		this.readRatio = readRatio;
+		return this;
+	}
+
+	/**
+	 * @param scenarios the scenarios to seed and replay, all of them by default
+	 */
+	public LoadDriver scenarios(UserScenario... scenarios) {
+		if ( scenarios.length == 0 ) {
+			throw new IllegalArgumentException( "At least one scenario is needed" );
+		}
+		this.scenarios = scenarios.clone();
+		return this;
+	}
+
+	/**
+	 * @param copiesPerScenario how many users of each scenario are seeded for the reads to pick from
+	 */
+	public LoadDriver copiesPerScenario(int copiesPerScenario) {
+		if ( copiesPerScenario < 1 ) {
+			throw new IllegalArgumentException( "copiesPerScenario must be positive, was " + copiesPerScenario );
+		}
+		this.copiesPerScenario = copiesPerScenario;
+		return this;
+	}
+
+	/**
+	 * @param warmup how long to run before measuring, to get the JIT and the caches out of the way
+	 */
+	public LoadDriver warmup(Duration warmup) {
+		this.warmup = warmup;
+		return this;
+	}
+
+	public LoadDriver duration(Duration duration) {
+		this.duration = duration;
+		return this;
+	}
+
+	public static boolean supportsVirtualThreads() {
+		return Runtime.version().feature() >= 21;
+	}
+
+	/**
+	 * Seeds the scenarios, runs the warmup if any, then measures for the configured duration.
+	 */
+	public LoadReport run() {
+		seed();
+		if ( !warmup.isZero() ) {
+			measure( warmup );
+		}
+		return measure( duration );
+	}
+
+	private void seed() {
+		int count = scenarios.length * copiesPerScenario;
+		seededIds = new long[count];
+		seededNames = new String[count];
+		seededScenarios = new UserScenario[count];
+
+		EntityManager entityManager = template.getEntityManagerFactory().createEntityManager();
+		entityManager.getTransaction().begin();
+
+		for ( int i = 0; i < count; i++ ) {
+			UserScenario scenario = scenarios[i % scenarios.length];
+			String name = scenario.getName() + "-" + i;
+			seededIds[i] = scenario.persist( entityManager, name ).getId();
+			seededNames[i] = name;
+			seededScenarios[i] = scenario;
+		}
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+
+	private LoadReport measure(Duration runFor) {
+		LoadReport report = new LoadReport( threads, virtualThreads );
+		ExecutorService executor = virtualThreads
+				? newVirtualThreadPerTaskExecutor()
+				: Executors.newFixedThreadPool( threads );
+
+		long start = System.nanoTime();
+		long deadline = start + runFor.toNanos();
+		try {
+			List<Future<?>> workers = new ArrayList<>( threads );
+			for ( int i = 0; i < threads; i++ ) {
+				workers.add( executor.submit( () -> {
+					while ( System.nanoTime() < deadline ) {
+						execute( report );
+					}
+				} ) );
+			}
+			for ( Future<?> worker : workers ) {
+				worker.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( "Interrupted while waiting for the load to complete", e );
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException( "A load thread failed", e.getCause() );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		report.finish( System.nanoTime() - start );
+		return report;
+	}
+
+	private void execute(LoadReport report) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Operation operation = random.nextDouble() < readRatio
+				? ( random.nextBoolean() ? Operation.READ_BY_ID : Operation.READ_BY_NAME )
+				: Operation.WRITE;
+		int seeded = random.nextInt( seededIds.length );
+
+		long start = System.nanoTime();
+		try {
+			boolean matches;
+			switch ( operation ) {
+				case READ_BY_ID:
+					matches = seededScenarios[seeded].matches(
+							template.findUserByIdUsingEntityGraph( seededIds[seeded] ), seededNames[seeded] );
+					break;
+				case READ_BY_NAME:
+					matches = seededScenarios[seeded].matches(
+							template.findUserByNameUsingEntityGraph( seededNames[seeded] ), seededNames[seeded] );
+					break;
+				default:
+					matches = write( seededScenarios[seeded] );
+			}
+
+			if ( matches ) {
+				report.recordSuccess( operation, System.nanoTime() - start );
+			}
+			else {
+				report.recordMismatch( operation, seededScenarios[seeded] );
+			}
+		}
+		catch (RuntimeException e) {
+			report.recordError( operation, e.getClass().getName() );
+		}
+	}
+
+	private boolean write(UserScenario scenario) {
+		EntityManagerFactory entityManagerFactory = template.getEntityManagerFactory();
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		try {
+			entityManager.getTransaction().begin();
+			User user = scenario.persist( entityManager,
+					scenario.getName() + "-w" + writeSequence.incrementAndGet() );
+			entityManager.getTransaction().commit();
+			return user.getId() != null;
+		}
+		finally {
+			if ( entityManager.getTransaction().isActive() ) {
+				entityManager.getTransaction().rollback();
+			}
+			entityManager.close();
+		}
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException( "Could not create a virtual thread executor", e );
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.hibernate.bugs.load;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * What a {@link LoadDriver} run measured: the latency of every successful operation, by operation, the failed
+ * operations, by operation and cause, and apart from them the operations that completed but loaded a user not
+ * matching its scenario, by operation and scenario.
+ */
+public class LoadReport {
+
+	private final Map<LoadDriver.Operation, Histogram> latencyNanos = new EnumMap<>( LoadDriver.Operation.class );
+
+	private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> mismatches = new ConcurrentHashMap<>();
+
+	private final int threads;
+
+	private final boolean virtualThreads;
+
+	private long elapsedNanos;
+
+	LoadReport(int threads, boolean virtualThreads) {
+		this.threads = threads;
+		this.virtualThreads = virtualThreads;
+		for ( LoadDriver.Operation operation : LoadDriver.Operation.values() ) {
+			latencyNanos.put( operation, new ConcurrentHistogram( 3 ) );
+		}
+	}
+
+	void recordSuccess(LoadDriver.Operation operation, long nanos) {
+		latencyNanos.get( operation ).recordValue( nanos );
+	}
+
+	void recordError(LoadDriver.Operation operation, String cause) {
+		errors.computeIfAbsent( operation + ": " + cause, key -> new LongAdder() ).increment();
+	}
+
+	void recordMismatch(LoadDriver.Operation operation, UserScenario scenario) {
+		mismatches.computeIfAbsent( operation + ": " + scenario, key -> new LongAdder() ).increment();
+	}
+
+	void finish(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of operations that completed successfully
+	 */
+	public long getOperationCount() {
+		long count = 0;
+		for ( Histogram histogram : latencyNanos.values() ) {
+			count += histogram.getTotalCount();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the successful operations per second, over the whole run
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0 ? 0 : getOperationCount() * 1e9 / elapsedNanos;
+	}
+
+	public Histogram getLatencyNanos(LoadDriver.Operation operation) {
+		return latencyNanos.get( operation );
+	}
+
+	/**
+	 * @return the number of failed operations, keyed by operation and exception
+	 */
+	public Map<String, Long> getErrors() {
+		return counts( errors );
+	}
+
+	public long getErrorCount() {
+		return sum( errors );
+	}
+
+	/**
+	 * @return the number of operations that loaded a user not matching its scenario, keyed by operation and scenario
+	 */
+	public Map<String, Long> getMismatches() {
+		return counts( mismatches );
+	}
+
+	public long getMismatchCount() {
+		return sum( mismatches );
+	}
+
+	public void print(PrintStream out) {
+		out.printf( "%d %s threads, %d ms: %d operations, %.1f ops/s, %d errors, %d mismatches%n",
+				threads,
+				virtualThreads ? "virtual" : "platform",
+				TimeUnit.NANOSECONDS.toMillis( elapsedNanos ),
+				getOperationCount(),
+				getThroughput(),
+				getErrorCount(),
+				getMismatchCount() );
+
+		latencyNanos.forEach( (operation, histogram) -> {
+			if ( histogram.getTotalCount() > 0 ) {
+				out.printf( "  %-12s %8d ops, p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus%n",
+						operation,
+						histogram.getTotalCount(),
+						micros( histogram.getValueAtPercentile( 50 ) ),
+						micros( histogram.getValueAtPercentile( 90 ) ),
+						micros( histogram.getValueAtPercentile( 99 ) ),
+						micros( histogram.getValueAtPercentile( 99.9 ) ),
+						micros( histogram.getMaxValue() ) );
+			}
+		} );
+
+		getErrors().forEach( (cause, count) -> out.printf( "  %s: %d%n", cause, count ) );
+		getMismatches().forEach( (cause, count) -> out.printf( "  %s mismatch: %d%n", cause, count ) );
+	}
+
+	private static Map<String, Long> counts(Map<String, LongAdder> adders) {
+		Map<String, Long> counts = new TreeMap<>();
+		adders.forEach( (key, count) -> counts.put( key, count.sum() ) );
+		return counts;
+	}
+
+	private static long sum(Map<String, LongAdder> adders) {
+		return adders.values().stream().mapToLong( LongAdder::sum ).sum();
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros( nanos );
+	}
+}
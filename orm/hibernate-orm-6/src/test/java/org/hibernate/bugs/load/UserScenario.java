@@ -0,0 +1,159 @@
+package org.hibernate.bugs.load;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.bugs.JPAUnitTestCase;
+import org.hibernate.bugs.projection.UserSummary;
+import org.hibernate.entity.User;
+import org.hibernate.entity.UserDetail;
+import org.hibernate.entity.UserSkill;
+
+/**
+ * The users seeded by the tests of {@link JPAUnitTestCase}, as data: each scenario can persist any number of copies
+ * of its user, and check that a user loaded with the "user-entity-graph" only shows its active detail and its
+ * non-deleted skills.
+ */
+public enum UserScenario {
+
+	ALICE( "Alice", details(), skills() ),
+	BOB( "Bob", details( "New York", false ), skills() ),
+	CHARLIE( "Charlie", details( "Paris", true ), skills( "Java", true ) ),
+	DAVID( "David", details( "London", false, "Rome", true ), skills( "Kotlin", false ) ),
+	EVE( "Eve", details( "Moscow", false, "Istanbul", false, "Berlin", true ), skills( "Python", true, "Ruby", false ) ),
+	FRANK( "Frank", details( "Madrid", true ), skills( "Rust", true, "Erlang", false, "Go", false, "C", true ) ),
+	GRACE( "Grace", details( "Vienna", false, "Barcelona", true ), skills( "PHP", false, "Swift", false, "Dart", false, "Scala", false ) );
+
+	private final String name;
+
+	private final List<UserDetail> details;
+
+	private final List<UserSkill> skills;
+
+	UserScenario(String name, List<UserDetail> details, List<UserSkill> skills) {
+		this.name = name;
+		this.details = details;
+		this.skills = skills;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the details of this scenario, as unmanaged prototypes without a user
+	 */
+	public List<UserDetail> getDetails() {
+		return details;
+	}
+
+	/**
+	 * @return the skills of this scenario, deleted ones included, as unmanaged prototypes without a user
+	 */
+	public List<UserSkill> getSkills() {
+		return skills;
+	}
+
+	/**
+	 * @return the number of rows a copy of this scenario inserts: the user, its details and its skills
+	 */
+	public int getRowCount() {
+		return 1 + details.size() + skills.size();
+	}
+
+	/**
+	 * Persists a copy of this scenario's user, details and skills, under the given user name.
+	 */
+	public User persist(EntityManager entityManager, String userName) {
+		User user = new User();
+		user.setName( userName );
+		entityManager.persist( user );
+
+		for ( UserDetail template : details ) {
+			UserDetail detail = new UserDetail();
+			detail.setCity( template.getCity() );
+			detail.setActive( template.getActive() );
+			detail.setUser( user );
+			entityManager.persist( detail );
+		}
+
+		for ( UserSkill template : skills ) {
+			UserSkill skill = new UserSkill();
+			skill.setSkillName( template.getSkillName() );
+			skill.setDeleted( template.getDeleted() );
+			skill.setUser( user );
+			entityManager.persist( skill );
+		}
+
+		return user;
+	}
+
+	/**
+	 * @return whether {@code user}, loaded with its detail and skills, is a copy of this scenario's user named
+	 * {@code userName}
+	 */
+	public boolean matches(User user, String userName) {
+		if ( user == null || !userName.equals( user.getName() ) ) {
+			return false;
+		}
+
+		String loadedCity = user.getDetail() == null ? null : user.getDetail().getCity();
+		Set<String> loadedSkills = user.getSkills().stream()
+				.map( UserSkill::getSkillName )
+				.collect( Collectors.toSet() );
+
+		return Objects.equals( getActiveCity(), loadedCity ) && getLiveSkillNames().equals( loadedSkills );
+	}
+
+	/**
+	 * @return whether {@code summary} is the projection of a copy of this scenario's user named {@code userName}
+	 */
+	public boolean matches(UserSummary summary, String userName) {
+		return summary != null
+				&& userName.equals( summary.getName() )
+				&& Objects.equals( getActiveCity(), summary.getActiveCity() )
+				&& getLiveSkillNames().equals( new HashSet<>( summary.getSkillNames() ) )
+				&& summary.getSkillNames().size() == getLiveSkillNames().size();
+	}
+
+	private String getActiveCity() {
+		return details.stream()
+				.filter( UserDetail::getActive )
+				.map( UserDetail::getCity )
+				.findFirst()
+				.orElse( null );
+	}
+
+	private Set<String> getLiveSkillNames() {
+		return skills.stream()
+				.filter( skill -> !skill.getDeleted() )
+				.map( UserSkill::getSkillName )
+				.collect( Collectors.toSet() );
+	}
+
+	private static List<UserDetail> details(Object... cityAndActive) {
+		UserDetail[] details = new UserDetail[cityAndActive.length / 2];
+		for ( int i = 0; i < details.length; i++ ) {
+			details[i] = new UserDetail();
+			details[i].setCity( (String) cityAndActive[2 * i] );
+			details[i].setActive( (Boolean) cityAndActive[2 * i + 1] );
+		}
+		return Collections.unmodifiableList( Arrays.asList( details ) );
+	}
+
+	private static List<UserSkill> skills(Object... nameAndDeleted) {
+		UserSkill[] skills = new UserSkill[nameAndDeleted.length / 2];
+		for ( int i = 0; i < skills.length; i++ ) {
+			skills[i] = new UserSkill();
+			skills[i].setSkillName( (String) nameAndDeleted[2 * i] );
+			skills[i].setDeleted( (Boolean) nameAndDeleted[2 * i + 1] );
+		}
+		return Collections.unmodifiableList( Arrays.asList( skills ) );
+	}
+}
@@ -0,0 +1,76 @@
+package org.hibernate.bugs.projection;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * What the read endpoints show of a user: its name, the city of its active detail and the names of its live skills.
+ * <p>
+ * Built by {@link UserSummaryTransformer} straight from query rows, so it is never managed by a persistence context.
+ * The template compiles for Java 11, hence an immutable class rather than a record.
+ */
+public final class UserSummary {
+
+	private final Long id;
+
+	private final String name;
+
+	private final String activeCity;
+
+	private final List<String> skillNames;
+
+	public UserSummary(Long id, String name, String activeCity, List<String> skillNames) {
+		this.id = id;
+		this.name = name;
+		this.activeCity = activeCity;
+		this.skillNames = Collections.unmodifiableList( skillNames );
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the city of the active detail, or {@code null} if the user has none
+	 */
+	public String getActiveCity() {
+		return activeCity;
+	}
+
+	/**
+	 * @return the names of the skills that are not deleted, in alphabetical order
+	 */
+	public List<String> getSkillNames() {
+		return skillNames;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( obj == null || getClass() != obj.getClass() ) {
+			return false;
+		}
+		UserSummary that = (UserSummary) obj;
+		return Objects.equals( id, that.id )
+				&& Objects.equals( name, that.name )
+				&& Objects.equals( activeCity, that.activeCity )
+				&& skillNames.equals( that.skillNames );
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash( id, name, activeCity, skillNames );
+	}
+
+	@Override
+	public String toString() {
+		return "UserSummary(id=" + id + ", name=" + name + ", activeCity=" + activeCity + ", skills=" + skillNames + ")";
+	}
+}
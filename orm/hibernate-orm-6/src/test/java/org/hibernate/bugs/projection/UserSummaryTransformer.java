@@ -0,0 +1,68 @@
+package org.hibernate.bugs.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.query.ResultListTransformer;
+import org.hibernate.query.TupleTransformer;
+
+/**
+ * Turns the rows of {@link #SELECT} into {@link UserSummary} instances.  The query joins the skills, so a user comes
+ * back once per live skill: each row becomes a summary with at most one skill, then the consecutive summaries of the
+ * same user are merged into one.  This relies on the rows being ordered by user id.
+ */
+public final class UserSummaryTransformer implements TupleTransformer<UserSummary>, ResultListTransformer<UserSummary> {
+
+	/**
+	 * The user id, name, active city and live skill names, one row per skill.  Append a {@code WHERE} clause, then
+	 * {@link #ORDER_BY}.
+	 */
+	public static final String SELECT = "SELECT u.id, u.name, d.city, s.skillName FROM User u"
+			+ " LEFT JOIN u.detail d ON d.active = true"
+			+ " LEFT JOIN u.skills s ON s.deleted = false";
+
+	public static final String ORDER_BY = " ORDER BY u.id, s.skillName";
+
+	public static final UserSummaryTransformer INSTANCE = new UserSummaryTransformer();
+
+	private UserSummaryTransformer() {
+	}
+
+	@Override
+	public UserSummary transformTuple(Object[] tuple, String[] aliases) {
+		String skillName = (String) tuple[3];
+		return new UserSummary(
+				(Long) tuple[0],
+				(String) tuple[1],
+				(String) tuple[2],
+				skillName == null ? Collections.emptyList() : Collections.singletonList( skillName )
+		);
+	}
+
+	@Override
+	public List<UserSummary> transformList(List<UserSummary> rows) {
+		List<UserSummary> summaries = new ArrayList<>();
+		int from = 0;
+		while ( from < rows.size() ) {
+			UserSummary first = rows.get( from );
+			int to = from + 1;
+			while ( to < rows.size() && rows.get( to ).getId().equals( first.getId() ) ) {
+				to++;
+			}
+
+			if ( to - from == 1 ) {
+				summaries.add( first );
+			}
+			else {
+				List<String> skillNames = new ArrayList<>( to - from );
+				for ( int i = from; i < to; i++ ) {
+					skillNames.addAll( rows.get( i ).getSkillNames() );
+				}
+				summaries.add( new UserSummary( first.getId(), first.getName(), first.getActiveCity(), skillNames ) );
+			}
+			from = to;
+		}
+		return summaries;
+	}
+}
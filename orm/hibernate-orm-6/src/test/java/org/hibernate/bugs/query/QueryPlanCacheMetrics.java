@@ -0,0 +1,90 @@
+package org.hibernate.bugs.query;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.spi.QueryInterpretationCache;
+import org.hibernate.stat.Statistics;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * A point-in-time copy of the size of the query plan cache and of its hit and miss counts.
+ * <p>
+ * The cache holds two kinds of entries:
+ * <ul>
+ * <li>HQL interpretations: the parsed and analyzed form of each HQL string, shared by every query created from the
+ * same string, named or not</li>
+ * <li>query plans: the SQL translation of a query, only cached for queries without entity graph, filter or
+ * multi-valued parameter, so not for the {@code IN} lists and entity graphs of the user lookups</li>
+ * </ul>
+ * The hit and miss counts and the compilation time require {@code hibernate.generate_statistics} to be enabled; they
+ * are zero otherwise.
+ */
+public final class QueryPlanCacheMetrics {
+
+	private final int hqlInterpretationCount;
+
+	private final int queryPlanCount;
+
+	private final long hitCount;
+
+	private final long missCount;
+
+	private final long compilationMicros;
+
+	private QueryPlanCacheMetrics(QueryInterpretationCache cache, Statistics statistics) {
+		this.hqlInterpretationCount = cache.getNumberOfCachedHqlInterpretations();
+		this.queryPlanCount = cache.getNumberOfCachedQueryPlans();
+		this.hitCount = statistics.getQueryPlanCacheHitCount();
+		this.missCount = statistics.getQueryPlanCacheMissCount();
+
+		long compilationMicros = 0;
+		for ( String query : statistics.getQueries() ) {
+			compilationMicros += statistics.getQueryStatistics( query ).getPlanCompilationTotalMicroseconds();
+		}
+		this.compilationMicros = compilationMicros;
+	}
+
+	public static QueryPlanCacheMetrics of(EntityManagerFactory entityManagerFactory) {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap( SessionFactoryImplementor.class );
+		return new QueryPlanCacheMetrics(
+				sessionFactory.getQueryEngine().getInterpretationCache(),
+				sessionFactory.getStatistics()
+		);
+	}
+
+	public int getHqlInterpretationCount() {
+		return hqlInterpretationCount;
+	}
+
+	public int getQueryPlanCount() {
+		return queryPlanCount;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the time spent parsing HQL strings missing from the cache
+	 */
+	public long getCompilationMicros() {
+		return compilationMicros;
+	}
+
+	public double getHitRatio() {
+		long lookups = hitCount + missCount;
+		return lookups == 0 ? 0 : (double) hitCount / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return format( "hqlInterpretations={0}, queryPlans={1}, hits={2}, misses={3}, hitRatio={4,number,percent}, "
+						+ "compilation={5}us",
+				hqlInterpretationCount, queryPlanCount, hitCount, missCount, getHitRatio(), compilationMicros );
+	}
+}
@@ -0,0 +1,105 @@
+package org.hibernate.bugs.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.jboss.logging.Logger;
+
+/**
+ * Pre-compiles every named HQL query as soon as the session factory is created, so that the first lookups do not pay
+ * for parsing: creating a named query resolves its HQL string against the query plan cache, and the warm-up makes
+ * sure that it is found there.
+ * <p>
+ * Hibernate does the same when it checks the named queries at startup, unless {@code hibernate.query.startup_check}
+ * is {@code false}: the warm-up keeps the first lookups from parsing their queries when the check is turned off to
+ * speed up the bootstrap, and reports what the compilation took.
+ * <p>
+ * The SQL translation is not warmed up, as it needs parameter values and is only cached for some queries (see
+ * {@link QueryPlanCacheMetrics}).  Nothing is executed either: the database may not even have its schema yet.
+ * <p>
+ * The cache holds {@code hibernate.query.plan_cache_max_size} entries, 2048 by default.  Queries built by
+ * concatenating strings each take their own entry, and may evict the warmed-up ones: prefer named queries and
+ * parameters.
+ *
+ * @see QueryPlanWarmUpIntegrator
+ */
+public class QueryPlanWarmUp implements SessionFactoryObserver {
+
+	public static final String ENABLED = "hibernate.query_plan.warm_up";
+
+	private static final Logger LOG = Logger.getLogger( QueryPlanWarmUp.class );
+
+	/**
+	 * The warm-ups by {@link SessionFactoryImplementor#getUuid() factory UUID}, so that a factory that is never closed
+	 * can still be collected once its last reference is gone from the tests.
+	 */
+	private static final Map<String, QueryPlanWarmUp> WARM_UPS = new ConcurrentHashMap<>();
+
+	private final List<String> queryNames = new ArrayList<>();
+
+	private long durationNanos;
+
+	private QueryPlanCacheMetrics metrics;
+
+	/**
+	 * @return the warm-up of the factory, or {@code null} if {@code hibernate.query_plan.warm_up} is not enabled or the
+	 * named queries are checked at startup
+	 */
+	public static QueryPlanWarmUp from(EntityManagerFactory entityManagerFactory) {
+		return WARM_UPS.get( entityManagerFactory.unwrap( SessionFactoryImplementor.class ).getUuid() );
+	}
+
+	@Override
+	public void sessionFactoryCreated(SessionFactory factory) {
+		SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) factory;
+		long start = System.nanoTime();
+
+		sessionFactory.getQueryEngine()
+				.getNamedObjectRepository()
+				.visitSqmQueryMementos( memento -> queryNames.add( memento.getRegistrationName() ) );
+		try ( Session session = sessionFactory.openSession() ) {
+			for ( String queryName : queryNames ) {
+				// The interpretations are cached by HQL string for any result type but arrays and tuples
+				session.createNamedQuery( queryName, Object.class );
+			}
+		}
+
+		durationNanos = System.nanoTime() - start;
+		metrics = QueryPlanCacheMetrics.of( sessionFactory );
+		WARM_UPS.put( sessionFactory.getUuid(), this );
+		LOG.infof( "Warmed up %d named queries in %d ms: %s",
+				queryNames.size(), TimeUnit.NANOSECONDS.toMillis( durationNanos ), metrics );
+	}
+
+	@Override
+	public void sessionFactoryClosed(SessionFactory factory) {
+		WARM_UPS.remove( ( (SessionFactoryImplementor) factory ).getUuid() );
+	}
+
+	/**
+	 * @return the names of the queries compiled by the warm-up
+	 */
+	public List<String> getQueryNames() {
+		return Collections.unmodifiableList( queryNames );
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return the query plan cache right after the warm-up
+	 */
+	public QueryPlanCacheMetrics getMetrics() {
+		return metrics;
+	}
+}
@@ -0,0 +1,38 @@
+package org.hibernate.bugs.query;
+
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Adds a {@link QueryPlanWarmUp} to the session factories with {@code hibernate.query_plan.warm_up} set to
+ * {@code true} and {@code hibernate.query.startup_check} set to {@code false}: when checking the named queries at
+ * startup, as it does by default, Hibernate already compiles them.  The integrators run before the factory is
+ * complete, so the warm-up waits for it to be created.
+ * <p>
+ * Registered through {@code META-INF/services/org.hibernate.integrator.spi.Integrator}.
+ */
+public class QueryPlanWarmUpIntegrator implements Integrator {
+
+	@Override
+	public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+		Map<String, Object> settings = sessionFactory.getServiceRegistry()
+				.getService( ConfigurationService.class )
+				.getSettings();
+		if ( ConfigurationHelper.getBoolean( QueryPlanWarmUp.ENABLED, settings, false )
+				&& !ConfigurationHelper.getBoolean( AvailableSettings.QUERY_STARTUP_CHECKING, settings, true ) ) {
+			sessionFactory.addObserver( new QueryPlanWarmUp() );
+		}
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+}
@@ -0,0 +1,38 @@
+package org.hibernate.bugs.reset;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * How {@link org.hibernate.bugs.JPAUnitTestCase} gets rid of the records of a test before the next one, when the
+ * test ends.  Select it for a test class with {@link ResetWith}; {@link DeleteReset} is the default.
+ * <p>
+ * Implementations need a public no-argument constructor, and should keep their state in the database or the factory:
+ * each test gets its own instance.
+ */
+public interface DataReset {
+
+	/**
+	 * @return the settings the persistence unit needs to be bootstrapped with, overriding those of the test
+	 */
+	default Map<String, Object> settings() {
+		return Collections.emptyMap();
+	}
+
+	/**
+	 * Makes the current records the baseline that {@link #reset(EntityManagerFactory)} restores, typically after
+	 * seeding the data that all the tests of a class share.
+	 *
+	 * @throws UnsupportedOperationException if the strategy empties the tables instead
+	 */
+	default void markBaseline(EntityManagerFactory entityManagerFactory) {
+		throw new UnsupportedOperationException( getClass().getSimpleName() + " empties the tables, it has no baseline" );
+	}
+
+	/**
+	 * Brings the records back to the baseline, or empties the tables if there is none.
+	 */
+	void reset(EntityManagerFactory entityManagerFactory);
+}
@@ -0,0 +1,23 @@
+package org.hibernate.bugs.reset;
+
+import java.sql.Statement;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Deletes all the rows of the template tables: slow with many rows, as every row is deleted one by one and logged
+ * for the transaction to be rolled back, but it works with any database.
+ */
+public class DeleteReset implements DataReset {
+
+	@Override
+	public void reset(EntityManagerFactory entityManagerFactory) {
+		TemplateTables.doWork( entityManagerFactory, connection -> {
+			try ( Statement statement = connection.createStatement() ) {
+				for ( String table : TemplateTables.NAMES ) {
+					statement.executeUpdate( "DELETE FROM " + table );
+				}
+			}
+		} );
+	}
+}
@@ -0,0 +1,19 @@
+package org.hibernate.bugs.reset;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the {@link DataReset} of the tests of the annotated class, for the templates created with
+ * {@code JPAUnitTestCase.forTestClass(getClass())}.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ResetWith {
+
+	Class<? extends DataReset> value();
+}
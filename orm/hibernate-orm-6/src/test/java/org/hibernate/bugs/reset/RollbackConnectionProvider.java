@@ -0,0 +1,144 @@
+package org.hibernate.bugs.reset;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Hands out a single physical connection, in a transaction that only {@link #rollback()} and {@link #commit()} end:
+ * the transactions of the sessions become savepoints of that transaction, committing one just releases its savepoint
+ * and rolling one back goes back to it.  Everything a test writes can then be undone at once, whatever the number of
+ * transactions it committed.
+ * <p>
+ * All the sessions share the connection, so only single-threaded tests can use it, one transaction at a time.
+ *
+ * @see RollbackReset
+ */
+public class RollbackConnectionProvider extends DriverManagerConnectionProviderImpl {
+
+	private Connection physicalConnection;
+
+	public static RollbackConnectionProvider from(EntityManagerFactory entityManagerFactory) {
+		return entityManagerFactory.unwrap( SessionFactoryImplementor.class )
+				.getServiceRegistry()
+				.getService( ConnectionProvider.class )
+				.unwrap( RollbackConnectionProvider.class );
+	}
+
+	@Override
+	public synchronized Connection getConnection() throws SQLException {
+		if ( physicalConnection == null ) {
+			physicalConnection = super.getConnection();
+			physicalConnection.setAutoCommit( false );
+		}
+		return (Connection) Proxy.newProxyInstance(
+				getClass().getClassLoader(),
+				new Class<?>[] { Connection.class },
+				new SavepointTransaction( physicalConnection )
+		);
+	}
+
+	@Override
+	public void closeConnection(Connection connection) {
+		// The physical connection stays open until the provider stops
+	}
+
+	/**
+	 * Undoes everything written since the last {@link #commit()}.
+	 */
+	public synchronized void rollback() throws SQLException {
+		if ( physicalConnection != null ) {
+			physicalConnection.rollback();
+		}
+	}
+
+	/**
+	 * Makes everything written so far permanent, so that {@link #rollback()} comes back to it.
+	 */
+	public synchronized void commit() throws SQLException {
+		if ( physicalConnection != null ) {
+			physicalConnection.commit();
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if ( physicalConnection != null ) {
+			try {
+				physicalConnection.rollback();
+				super.closeConnection( physicalConnection );
+			}
+			catch (SQLException e) {
+				// The pool is closing anyway
+			}
+			physicalConnection = null;
+		}
+		super.stop();
+	}
+
+	/**
+	 * Lets Hibernate believe that it manages the transaction of the connection, through auto-commit, commit and
+	 * rollback calls that are turned into savepoints.
+	 */
+	private static class SavepointTransaction implements InvocationHandler {
+
+		private final Connection target;
+
+		private Savepoint savepoint;
+
+		private SavepointTransaction(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch ( method.getName() ) {
+				case "getAutoCommit":
+					return savepoint == null;
+				case "setAutoCommit":
+					if ( !(Boolean) args[0] && savepoint == null ) {
+						savepoint = target.setSavepoint();
+					}
+					return null;
+				case "commit":
+					if ( savepoint != null ) {
+						target.releaseSavepoint( savepoint );
+						savepoint = null;
+					}
+					return null;
+				case "rollback":
+					if ( args == null && savepoint != null ) {
+						target.rollback( savepoint );
+						savepoint = null;
+						return null;
+					}
+					break;
+				case "close":
+					return null;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode( proxy );
+				case "isClosed":
+					return false;
+				default:
+					break;
+			}
+			try {
+				return method.invoke( target, args );
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package org.hibernate.bugs.reset;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Rolls back everything the test wrote, through a {@link RollbackConnectionProvider}: nothing is ever deleted, the
+ * changes are just never committed.  The baseline is whatever was committed for real by
+ * {@link #markBaseline(EntityManagerFactory)}.
+ * <p>
+ * Only for single-threaded tests, which do not count JDBC traffic with another connection provider.
+ */
+public class RollbackReset implements DataReset {
+
+	@Override
+	public Map<String, Object> settings() {
+		return Map.of( "hibernate.connection.provider_class", RollbackConnectionProvider.class.getName() );
+	}
+
+	@Override
+	public void markBaseline(EntityManagerFactory entityManagerFactory) {
+		try {
+			RollbackConnectionProvider.from( entityManagerFactory ).commit();
+		}
+		catch (SQLException e) {
+			throw new PersistenceException( "Could not commit the baseline", e );
+		}
+	}
+
+	@Override
+	public void reset(EntityManagerFactory entityManagerFactory) {
+		try {
+			RollbackConnectionProvider.from( entityManagerFactory ).rollback();
+		}
+		catch (SQLException e) {
+			throw new PersistenceException( "Could not roll back the test", e );
+		}
+	}
+}
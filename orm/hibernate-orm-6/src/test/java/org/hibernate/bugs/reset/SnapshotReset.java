@@ -0,0 +1,60 @@
+package org.hibernate.bugs.reset;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Copies the rows of the template tables into {@code snapshot_} tables of the same H2 database when the baseline is
+ * marked, then restores them after each test: the tables are truncated, as with {@link TruncateReset}, and refilled
+ * from the copies with one {@code INSERT ... SELECT} each, which is much cheaper than seeding them again through
+ * Hibernate.
+ * <p>
+ * The copies outlive the factory, and are only replaced by the next {@link #markBaseline(EntityManagerFactory)}:
+ * the tests of a class using this strategy should mark their baseline before each test, even an empty one.
+ */
+public class SnapshotReset implements DataReset {
+
+	private static final String PREFIX = "snapshot_";
+
+	@Override
+	public void markBaseline(EntityManagerFactory entityManagerFactory) {
+		TemplateTables.doWork( entityManagerFactory, connection -> {
+			try ( Statement statement = connection.createStatement() ) {
+				for ( String table : TemplateTables.NAMES ) {
+					statement.execute( "DROP TABLE IF EXISTS " + PREFIX + table );
+					statement.execute( "CREATE TABLE " + PREFIX + table + " AS SELECT * FROM " + table );
+				}
+			}
+		} );
+	}
+
+	@Override
+	public void reset(EntityManagerFactory entityManagerFactory) {
+		TemplateTables.doWork( entityManagerFactory, connection -> {
+			try ( Statement statement = connection.createStatement() ) {
+				boolean snapshotted;
+				try ( ResultSet tables = connection.getMetaData()
+						.getTables( null, null, ( PREFIX + TemplateTables.NAMES.get( 0 ) ).toUpperCase( Locale.ROOT ), null ) ) {
+					snapshotted = tables.next();
+				}
+
+				statement.execute( "SET REFERENTIAL_INTEGRITY FALSE" );
+				try {
+					for ( String table : TemplateTables.NAMES ) {
+						statement.execute( "TRUNCATE TABLE " + table );
+						if ( snapshotted ) {
+							// Same columns in the same order, ids included: the identity columns accept given values
+							statement.executeUpdate( "INSERT INTO " + table + " SELECT * FROM " + PREFIX + table );
+						}
+					}
+				}
+				finally {
+					statement.execute( "SET REFERENTIAL_INTEGRITY TRUE" );
+				}
+			}
+		} );
+	}
+}
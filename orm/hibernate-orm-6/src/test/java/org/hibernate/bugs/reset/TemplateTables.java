@@ -0,0 +1,32 @@
+package org.hibernate.bugs.reset;
+
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+
+/**
+ * The tables of the template entities, and a way to run plain JDBC against them.
+ */
+final class TemplateTables {
+
+	/**
+	 * Children first, so that deleting the rows in this order never breaks a foreign key.
+	 */
+	static final List<String> NAMES = List.of( "user_skills", "user_details", "users" );
+
+	private TemplateTables() {
+	}
+
+	static void doWork(EntityManagerFactory entityManagerFactory, Work work) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		entityManager.getTransaction().begin();
+
+		entityManager.unwrap( Session.class ).doWork( work );
+
+		entityManager.getTransaction().commit();
+		entityManager.close();
+	}
+}
@@ -0,0 +1,32 @@
+package org.hibernate.bugs.reset;
+
+import java.sql.Statement;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Truncates the template tables, which drops their rows at once instead of deleting them one by one.  H2 refuses to
+ * truncate a table referenced by a foreign key, so referential integrity is turned off meanwhile.
+ * <p>
+ * The identity columns are not restarted: the ids keep increasing from one test to the next, as they do with
+ * {@link DeleteReset}.
+ */
+public class TruncateReset implements DataReset {
+
+	@Override
+	public void reset(EntityManagerFactory entityManagerFactory) {
+		TemplateTables.doWork( entityManagerFactory, connection -> {
+			try ( Statement statement = connection.createStatement() ) {
+				statement.execute( "SET REFERENTIAL_INTEGRITY FALSE" );
+				try {
+					for ( String table : TemplateTables.NAMES ) {
+						statement.execute( "TRUNCATE TABLE " + table );
+					}
+				}
+				finally {
+					statement.execute( "SET REFERENTIAL_INTEGRITY TRUE" );
+				}
+			}
+		} );
+	}
+}
@@ -1,6 +1,7 @@
 package org.hibernate.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -10,18 +11,47 @@ import static jakarta.persistence.GenerationType.IDENTITY;
 import static java.text.MessageFormat.format;
 import static java.util.Objects.hash;
 import static java.util.stream.Collectors.joining;
-
-@NamedEntityGraph(
-        name = "user-entity-graph",
-        attributeNodes = {
-                @NamedAttributeNode(value = "detail"),
-                @NamedAttributeNode(value = "skills")
-        }
-)
-@Table(name = "users")
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
+
+@NamedEntityGraphs({
+        @NamedEntityGraph(
+                name = "user-entity-graph",
+                attributeNodes = {
+                        @NamedAttributeNode(value = "detail"),
+                        @NamedAttributeNode(value = "skills")
+                }
+        ),
+        @NamedEntityGraph(
+                name = "user-skills-graph",
+                attributeNodes = {
+                        @NamedAttributeNode(value = "skills")
+                }
+        )
+})
+@NamedQueries({
+        @NamedQuery(name = User.FIND_BY_NAME, query = "SELECT u FROM User u WHERE u.name = :name"),
+        @NamedQuery(name = User.FIND_BY_IDS, query = "SELECT u FROM User u WHERE u.id IN :ids"),
+        @NamedQuery(name = User.FIND_BY_IDS_WITH_ACTIVE_DETAIL, query = "SELECT u FROM User u LEFT JOIN FETCH u.detail d"
+                + " WHERE u.id IN :ids AND (d.id IS NULL OR d.active = true"
+                + " OR NOT EXISTS (SELECT a.id FROM UserDetail a WHERE a.user = u AND a.active = true))"),
+        @NamedQuery(name = User.FIND_ALL_IDS, query = "SELECT u.id FROM User u ORDER BY u.id")
+})
+@Cacheable
+@Cache(usage = READ_WRITE)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_user_name", columnList = "user_name")
+})
 @Entity(name = "User")
 public class User {
 
+    public static final String FIND_BY_NAME = "User.findByName";
+
+    public static final String FIND_BY_IDS = "User.findByIds";
+
+    public static final String FIND_BY_IDS_WITH_ACTIVE_DETAIL = "User.findByIdsWithActiveDetail";
+
+    public static final String FIND_ALL_IDS = "User.findAllIds";
+
     @Id
     @GeneratedValue(strategy = IDENTITY)
     @Column(name = "user_id")
@@ -33,6 +63,7 @@ public class User {
     @OneToOne(mappedBy = "user", fetch = LAZY)
     private UserDetail detail;
 
+    @Cache(usage = READ_WRITE)
     @OneToMany(mappedBy = "user", fetch = LAZY)
     private Set<UserSkill> skills = new HashSet<>();
 
@@ -1,15 +1,21 @@
 package org.hibernate.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.Where;
 
 import static jakarta.persistence.FetchType.LAZY;
 import static jakarta.persistence.GenerationType.IDENTITY;
 import static java.text.MessageFormat.format;
 import static java.util.Objects.hash;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Where(clause = "is_active = true")
-@Table(name = "user_details")
+@Cacheable
+@Cache(usage = READ_WRITE)
+@Table(name = "user_details", indexes = {
+        @Index(name = "idx_user_details_user_id_is_active", columnList = "user_id, is_active")
+})
 @Entity(name = "UserDetail")
 public class UserDetail {
 
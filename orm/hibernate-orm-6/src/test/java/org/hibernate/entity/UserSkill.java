@@ -1,15 +1,21 @@
 package org.hibernate.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.Where;
 
 import static jakarta.persistence.FetchType.LAZY;
 import static jakarta.persistence.GenerationType.IDENTITY;
 import static java.text.MessageFormat.format;
 import static java.util.Objects.hash;
+import static org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE;
 
 @Where(clause = "has_deleted = false")
-@Table(name = "user_skills")
+@Cacheable
+@Cache(usage = READ_WRITE)
+@Table(name = "user_skills", indexes = {
+        @Index(name = "idx_user_skills_user_id_has_deleted", columnList = "user_id, has_deleted")
+})
 @Entity(name = "UserSkill")
 public class UserSkill {
 
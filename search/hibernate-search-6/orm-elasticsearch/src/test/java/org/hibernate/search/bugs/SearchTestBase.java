@@ -1,24 +1,46 @@
 package org.hibernate.search.bugs;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.SessionFactoryBuilder;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchWorkspace;
 import org.hibernate.service.ServiceRegistry;
 import org.hibernate.service.spi.ServiceRegistryImplementor;
 import org.junit.After;
 import org.junit.Before;
 
 public abstract class SearchTestBase {
-	
+
 	private SessionFactory sessionFactory;
-	
+
 	@Before
 	public void setUp() {
+		Class<?>[] annotatedClasses = getAnnotatedClasses();
+		Map<String, Object> settings = getSettings();
+		// With the BootstrapCache enabled, the tests with the same entities and settings share a factory
+		List<Object> configuration = Arrays.asList(
+				annotatedClasses == null ? new ArrayList<>() : Arrays.asList( annotatedClasses ),
+				settings );
+		this.sessionFactory = BootstrapCache.sessionFactory( configuration,
+				() -> buildSessionFactory( annotatedClasses, settings ) );
+	}
+
+	private static SessionFactory buildSessionFactory(Class<?>[] annotatedClasses, Map<String, Object> settings) {
 		StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder();
+		registryBuilder.applySettings( settings );
 		MetadataSources ms = new MetadataSources( registryBuilder.build() );
-		Class<?>[] annotatedClasses = getAnnotatedClasses();
 		if ( annotatedClasses != null ) {
 			for ( Class<?> entity : annotatedClasses ) {
 				ms.addAnnotatedClass( entity );
@@ -28,16 +50,61 @@ public abstract class SearchTestBase {
 		Metadata metadata = ms.buildMetadata();
 
 		final SessionFactoryBuilder sfb = metadata.getSessionFactoryBuilder();
-		this.sessionFactory = sfb.build();
+		return sfb.build();
 	}
-	
+
 	@After
 	public void tearDown() {
-		this.sessionFactory.close();
+		if ( this.sessionFactory == null ) {
+			return;
+		}
+		if ( BootstrapCache.isCached( this.sessionFactory ) ) {
+			resetData();
+		}
+		else {
+			this.sessionFactory.close();
+		}
+	}
+
+	/**
+	 * Empties the tables and the indexes of a factory shared with the next tests, instead of dropping and creating
+	 * them again with a new factory.
+	 */
+	private void resetData() {
+		try ( Session session = sessionFactory.openSession() ) {
+			session.doWork( connection -> {
+				try ( Statement statement = connection.createStatement() ) {
+					List<String> tables = new ArrayList<>();
+					try ( ResultSet resultSet = statement.executeQuery(
+							"SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'" ) ) {
+						while ( resultSet.next() ) {
+							tables.add( resultSet.getString( 1 ) );
+						}
+					}
+					// H2 specific, like the rest of the configuration: no need to sort the tables by foreign key
+					statement.execute( "SET REFERENTIAL_INTEGRITY FALSE" );
+					for ( String table : tables ) {
+						statement.execute( "TRUNCATE TABLE \"" + table + "\"" );
+					}
+					statement.execute( "SET REFERENTIAL_INTEGRITY TRUE" );
+				}
+			} );
+		}
+
+		SearchWorkspace workspace = Search.mapping( sessionFactory ).scope( Object.class ).workspace();
+		workspace.purge();
+		workspace.refresh();
 	}
 
 	protected abstract Class<?>[] getAnnotatedClasses();
-	
+
+	/**
+	 * @return settings added to those of {@code hibernate.properties}, none by default
+	 */
+	protected Map<String, Object> getSettings() {
+		return Collections.emptyMap();
+	}
+
 	protected SessionFactory getSessionFactory() {
 		return sessionFactory;
 	}
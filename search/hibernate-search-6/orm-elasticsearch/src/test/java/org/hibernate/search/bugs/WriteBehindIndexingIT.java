@@ -0,0 +1,123 @@
+package org.hibernate.search.bugs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Session;
+import org.hibernate.search.bugs.writebehind.WriteBehindIndexing;
+import org.hibernate.search.mapper.orm.Search;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Commits transactions from a few threads, each persisting one {@link YourAnnotatedEntity}, with the {@code sync}
+ * strategy of {@code hibernate.properties} then with {@link WriteBehindIndexing}, and checks that every entity ends up
+ * indexed.  With {@code sync}, the entities are searchable as soon as the transactions commit; with write-behind, once
+ * {@link WriteBehindIndexing#awaitIdle(Duration)} returns and the indexes are refreshed, and the pending plans never
+ * exceed the bound.
+ * <p>
+ * To try the write path under a heavier load, raise it from the command line, e.g.
+ * {@code mvn verify -Dit.test=WriteBehindIndexingIT -Dwritebehind.transactions=20000 -Dwritebehind.threads=8
+ * -Dwritebehind.maxBulkSize=500 -Dwritebehind.refreshInterval=5s}.
+ */
+@RunWith(Parameterized.class)
+public class WriteBehindIndexingIT extends SearchTestBase {
+
+	private static final int TRANSACTIONS = Integer.getInteger( "writebehind.transactions", 200 );
+
+	private static final int THREADS = Integer.getInteger( "writebehind.threads", 4 );
+
+	private static final int MAX_PENDING_PLANS = Integer.getInteger( "writebehind.maxPendingPlans", 10 );
+
+	@Parameterized.Parameters(name = "{0}")
+	public static Object[] modes() {
+		return new Object[]{ "sync", "write-behind" };
+	}
+
+	private final WriteBehindIndexing writeBehind;
+
+	public WriteBehindIndexingIT(String mode) {
+		this.writeBehind = "write-behind".equals( mode )
+				? new WriteBehindIndexing()
+						.maxPendingPlans( MAX_PENDING_PLANS )
+						.maxBulkSize( Integer.getInteger( "writebehind.maxBulkSize", 100 ) )
+				: null;
+	}
+
+	@Override
+	public Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[]{ YourAnnotatedEntity.class };
+	}
+
+	@Override
+	protected Map<String, Object> getSettings() {
+		return writeBehind == null ? Collections.emptyMap() : writeBehind.settings();
+	}
+
+	@Test
+	public void testEveryCommittedEntityIsIndexed() throws Exception {
+		commitInParallel();
+
+		if ( writeBehind == null ) {
+			// Each transaction waited for its works to be committed and refreshed
+			assertThat( countSmiths() ).isEqualTo( TRANSACTIONS );
+			return;
+		}
+
+		assertThat( writeBehind.awaitIdle( Duration.ofMinutes( 1 ) ) ).isTrue();
+		assertThat( writeBehind.getQueueDepth() ).isZero();
+		assertThat( writeBehind.getCompletedPlans() ).isEqualTo( TRANSACTIONS );
+		assertThat( writeBehind.getFailedPlans() ).isZero();
+		assertThat( writeBehind.getMaxQueueDepth() ).isBetween( 1L, (long) MAX_PENDING_PLANS );
+		assertThat( writeBehind.getMaxLag() ).isGreaterThanOrEqualTo( writeBehind.getAverageLag() );
+
+		Search.mapping( getSessionFactory() ).scope( Object.class ).workspace().refresh();
+		assertThat( countSmiths() ).isEqualTo( TRANSACTIONS );
+	}
+
+	private void commitInParallel() throws Exception {
+		AtomicLong ids = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+		try {
+			List<Future<?>> writers = new ArrayList<>();
+			for ( int i = 0; i < THREADS; i++ ) {
+				writers.add( executor.submit( () -> {
+					long id;
+					while ( ( id = ids.incrementAndGet() ) <= TRANSACTIONS ) {
+						try ( Session session = getSessionFactory().openSession() ) {
+							session.getTransaction().begin();
+							session.persist( new YourAnnotatedEntity( id, "Jane Smith " + id ) );
+							session.getTransaction().commit();
+						}
+					}
+				} ) );
+			}
+			for ( Future<?> writer : writers ) {
+				writer.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private long countSmiths() {
+		try ( Session session = getSessionFactory().openSession() ) {
+			return Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "smith" ) )
+					.fetchTotalHitCount();
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package org.hibernate.search.bugs.writebehind;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Write-behind automatic indexing: a transaction commits without waiting for its index works, which the backend
+ * queues and sends in bulk requests of up to {@link #maxBulkSize} works from many transactions, without a refresh per
+ * transaction: Elasticsearch refreshes the indexes once per {@code refresh_interval}, an index setting of
+ * {@code write-behind/index-settings.json}, and so set when the indexes are created.
+ * <p>
+ * The backend queues are bounded, and so are the indexing plans of the transactions waiting for the backend: a
+ * transaction that commits while {@link #maxPendingPlans} plans are pending waits for one of them to complete, which
+ * holds back the writers instead of piling up works in memory.  The queue depth and the indexing lag, the time between
+ * a transaction commit and the backend applying its works, are kept for the {@link #report()}.
+ * <p>
+ * Searches may not see the last writes: call {@link #awaitIdle(Duration)} then refresh the indexes when a test needs
+ * them.  Enable it with the {@link #settings()}, which register this instance as the synchronization strategy.
+ */
+public class WriteBehindIndexing implements AutomaticIndexingSynchronizationStrategy {
+
+	private static final String SYNCHRONIZATION_STRATEGY = "hibernate.search.automatic_indexing.synchronization.strategy";
+
+	private static final String INDEX_SETTINGS_FILE = "hibernate.search.backend.schema_management.settings_file";
+
+	private static final String MAX_BULK_SIZE = "hibernate.search.backend.indexing.max_bulk_size";
+
+	private static final String QUEUE_COUNT = "hibernate.search.backend.indexing.queue_count";
+
+	private static final String QUEUE_SIZE = "hibernate.search.backend.indexing.queue_size";
+
+	private int maxPendingPlans = 1000;
+
+	private int maxBulkSize = 100;
+
+	private int queueCount = 10;
+
+	private int queueSize = 1000;
+
+	/**
+	 * Shared by all the transactions, from the creation of this strategy: {@link #apply} runs once per transaction.
+	 */
+	private Semaphore permits = new Semaphore( maxPendingPlans );
+
+	private final AtomicLong queueDepth = new AtomicLong();
+
+	private final AtomicLong maxQueueDepth = new AtomicLong();
+
+	private final AtomicLong completedPlans = new AtomicLong();
+
+	private final AtomicLong failedPlans = new AtomicLong();
+
+	private final AtomicLong totalLagNanos = new AtomicLong();
+
+	private final AtomicLong maxLagNanos = new AtomicLong();
+
+	/**
+	 * @param maxPendingPlans how many transactions may have their index works pending before the next ones wait; set
+	 * before building the session factory with the {@link #settings()}
+	 */
+	public WriteBehindIndexing maxPendingPlans(int maxPendingPlans) {
+		if ( maxPendingPlans < 1 ) {
+			throw new IllegalArgumentException( "maxPendingPlans must be positive, was " + maxPendingPlans );
+		}
+		this.maxPendingPlans = maxPendingPlans;
+		this.permits = new Semaphore( maxPendingPlans );
+		return this;
+	}
+
+	/**
+	 * @param maxBulkSize how many works of a queue are sent in a single bulk request at most
+	 */
+	public WriteBehindIndexing maxBulkSize(int maxBulkSize) {
+		this.maxBulkSize = maxBulkSize;
+		return this;
+	}
+
+	/**
+	 * @param queueCount how many queues, and threads applying the works, each index has
+	 */
+	public WriteBehindIndexing queueCount(int queueCount) {
+		this.queueCount = queueCount;
+		return this;
+	}
+
+	/**
+	 * @param queueSize how many works each queue holds before the submitting thread waits
+	 */
+	public WriteBehindIndexing queueSize(int queueSize) {
+		this.queueSize = queueSize;
+		return this;
+	}
+
+	/**
+	 * @return the settings enabling write-behind indexing, to add to the configuration of the session factory
+	 */
+	public Map<String, Object> settings() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put( SYNCHRONIZATION_STRATEGY, this );
+		settings.put( INDEX_SETTINGS_FILE, "write-behind/index-settings.json" );
+		settings.put( MAX_BULK_SIZE, maxBulkSize );
+		settings.put( QUEUE_COUNT, queueCount );
+		settings.put( QUEUE_SIZE, queueSize );
+		return settings;
+	}
+
+	@Override
+	public void apply(AutomaticIndexingSynchronizationConfigurationContext context) {
+		context.documentCommitStrategy( DocumentCommitStrategy.NONE );
+		context.documentRefreshStrategy( DocumentRefreshStrategy.NONE );
+		FailureHandler failureHandler = context.failureHandler();
+		context.indexingFutureHandler( future -> track( future, failureHandler ) );
+	}
+
+	private void track(CompletableFuture<SearchIndexingPlanExecutionReport> future, FailureHandler failureHandler) {
+		long start = System.nanoTime();
+		// The works are queued already: waiting here holds back the next transaction of this thread
+		permits.acquireUninterruptibly();
+		// Counted once admitted only, so that the depth never exceeds maxPendingPlans
+		maxQueueDepth.accumulateAndGet( queueDepth.incrementAndGet(), Math::max );
+		future.whenComplete( (report, throwable) -> {
+			long lag = System.nanoTime() - start;
+			totalLagNanos.addAndGet( lag );
+			maxLagNanos.accumulateAndGet( lag, Math::max );
+			completedPlans.incrementAndGet();
+			queueDepth.decrementAndGet();
+			permits.release();
+			if ( throwable != null ) {
+				failedPlans.incrementAndGet();
+				handleFailure( failureHandler, throwable, report );
+			}
+			else if ( report.throwable().isPresent() ) {
+				failedPlans.incrementAndGet();
+				handleFailure( failureHandler, report.throwable().get(), report );
+			}
+		} );
+	}
+
+	private static void handleFailure(FailureHandler failureHandler, Throwable throwable,
+			SearchIndexingPlanExecutionReport report) {
+		EntityIndexingFailureContext.Builder failure = EntityIndexingFailureContext.builder();
+		failure.throwable( throwable );
+		failure.failingOperation( "Write-behind automatic indexing" );
+		if ( report != null ) {
+			report.failingEntities().forEach( failure::entityReference );
+		}
+		failureHandler.handle( failure.build() );
+	}
+
+	/**
+	 * Waits until the backend has applied the works of all the committed transactions: not until they are visible to
+	 * searches, refresh the indexes for that.
+	 *
+	 * @return whether the works were all applied before the timeout
+	 */
+	public boolean awaitIdle(Duration timeout) throws InterruptedException {
+		if ( !permits.tryAcquire( maxPendingPlans, timeout.toNanos(), TimeUnit.NANOSECONDS ) ) {
+			return false;
+		}
+		permits.release( maxPendingPlans );
+		return true;
+	}
+
+	/**
+	 * @return the indexing plans of committed transactions not applied by the backend yet
+	 */
+	public long getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	public long getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	public long getCompletedPlans() {
+		return completedPlans.get();
+	}
+
+	public long getFailedPlans() {
+		return failedPlans.get();
+	}
+
+	/**
+	 * @return the average time between a transaction commit and the backend applying its works
+	 */
+	public Duration getAverageLag() {
+		long completed = completedPlans.get();
+		return Duration.ofNanos( completed == 0 ? 0 : totalLagNanos.get() / completed );
+	}
+
+	public Duration getMaxLag() {
+		return Duration.ofNanos( maxLagNanos.get() );
+	}
+
+	/**
+	 * @return the queue depth and indexing lag figures
+	 */
+	public String report() {
+		return format( "{0} plans applied, {1} failed, queue depth {2} (max {3}), lag {4} ms on average (max {5} ms)",
+				completedPlans.get(),
+				failedPlans.get(),
+				queueDepth.get(),
+				maxQueueDepth.get(),
+				getAverageLag().toMillis(),
+				getMaxLag().toMillis() );
+	}
+}
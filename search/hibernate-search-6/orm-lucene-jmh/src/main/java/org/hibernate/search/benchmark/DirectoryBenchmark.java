@@ -0,0 +1,167 @@
+package org.hibernate.search.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.search.backend.lucene.index.LuceneIndexManager;
+import org.hibernate.search.bugs.YourAnnotatedEntity;
+import org.hibernate.search.bugs.directory.DirectoryMode;
+import org.hibernate.search.bugs.directory.MappedFiles;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.mapper.orm.Search;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The search of {@code YourIT}, a match on the {@code name} field, over a large index of {@link YourAnnotatedEntity}
+ * stored in each {@link DirectoryMode}.  {@code searchHits} loads the 20 best hits from the database, like
+ * {@code YourIT}, and {@code searchIds} only projects their identifiers, for the time spent in the index alone.
+ * <p>
+ * The trial inserts the rows, builds the index with the mass indexer, merged into a single segment, and logs the
+ * open time: the bootstrap of a new session factory on the index and the first search for {@code MMAP} and {@code NIO},
+ * as after a restart, but the mass indexing and the first search for {@code HEAP}, which has to rebuild its index at
+ * every start.  Each iteration ends by logging the memory the index takes: its size in the heap for {@code HEAP}, the
+ * resident part of the mapped files for {@code MMAP}.  The page cache that {@code NIO} reads through is not accounted
+ * to the JVM; {@code fincore} on the index files reports it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class DirectoryBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( DirectoryBenchmark.class );
+
+	private static final String INDEX_NAME = "YourAnnotatedEntity";
+
+	private static final Path ROOT = Paths.get( "target", "benchmark-indexes" );
+
+	private static final String[] TERMS = { "smith", "doe", "jane", "martin", "alice", "dubois", "eve" };
+
+	@Param({ "MMAP", "NIO", "HEAP" })
+	private DirectoryMode mode;
+
+	@Param({ "10000000" })
+	private long documentCount;
+
+	private final MassIndexing massIndexing = new MassIndexing()
+			.batchSizeToLoadObjects( 100 )
+			.mergeSegmentsOnFinish( true );
+
+	private SessionFactory sessionFactory;
+
+	@Setup(Level.Trial)
+	public void buildIndex() throws InterruptedException {
+		sessionFactory = openSessionFactory( false );
+		EntityRows.insert( sessionFactory, documentCount );
+		long start = System.nanoTime();
+		massIndexing.run( sessionFactory, YourAnnotatedEntity.class );
+		if ( mode.isPersistent() ) {
+			sessionFactory.close();
+			start = System.nanoTime();
+			sessionFactory = openSessionFactory( true );
+		}
+		searchIds();
+		LOG.infof( "%s: %d documents, opened in %d ms",
+				mode, documentCount, TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+	}
+
+	/**
+	 * @param reopening whether to open the tables and index of the previous factory, instead of creating them
+	 */
+	private SessionFactory openSessionFactory(boolean reopening) {
+		Map<String, Object> settings = new HashMap<>( massIndexing.settings() );
+		settings.putAll( mode.settings() );
+		settings.put( "hibernate.search.backend.directory.root", ROOT.toString() );
+		// Nothing dropped when the first factory closes: the second one opens its tables and index
+		settings.put( "hibernate.hbm2ddl.auto", reopening ? "none" : "create" );
+		settings.put( "hibernate.search.schema_management.strategy", reopening ? "none" : "drop-and-create" );
+		// hibernate.properties of the template first, then these settings
+		StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().applySettings( settings );
+		return new MetadataSources( registryBuilder.build() )
+				.addAnnotatedClass( YourAnnotatedEntity.class )
+				.buildMetadata()
+				.buildSessionFactory();
+	}
+
+	@TearDown(Level.Iteration)
+	public void logFootprint() {
+		double indexMb = Search.mapping( sessionFactory ).indexManager( INDEX_NAME )
+				.unwrap( LuceneIndexManager.class )
+				.computeSizeInBytes() / ( 1024.0 * 1024.0 );
+		switch ( mode ) {
+			case MMAP:
+				LOG.infof( "%s: %.1f MB index, %s", mode, indexMb, MappedFiles.of( ROOT.resolve( INDEX_NAME ) ) );
+				break;
+			case NIO:
+				LOG.infof( "%s: %.1f MB index on disk, read through the page cache", mode, indexMb );
+				break;
+			default:
+				LOG.infof( "%s: %.1f MB index in the heap", mode, indexMb );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteIndex() throws IOException {
+		sessionFactory.close();
+		if ( Files.exists( ROOT ) ) {
+			try ( Stream<Path> files = Files.walk( ROOT ) ) {
+				for ( Path file : files.sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ) ) {
+					Files.delete( file );
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public List<YourAnnotatedEntity> searchHits() {
+		try ( Session session = sessionFactory.openSession() ) {
+			return Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( randomTerm() ) )
+					.fetchHits( 20 );
+		}
+	}
+
+	@Benchmark
+	public List<Long> searchIds() {
+		try ( Session session = sessionFactory.openSession() ) {
+			return Search.session( session ).search( YourAnnotatedEntity.class )
+					.select( f -> f.id( Long.class ) )
+					.where( f -> f.match().field( "name" ).matching( randomTerm() ) )
+					.fetchHits( 20 );
+		}
+	}
+
+	private static String randomTerm() {
+		return TERMS[ThreadLocalRandom.current().nextInt( TERMS.length )];
+	}
+}
@@ -0,0 +1,165 @@
+package org.hibernate.search.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.search.bugs.YourAnnotatedEntity;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.bugs.nrt.RefreshScheduler;
+import org.hibernate.search.bugs.nrt.SearcherWarmer;
+import org.hibernate.search.mapper.orm.Search;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The load of {@code NrtRefreshIT}: searches of {@link YourAnnotatedEntity} while other threads keep committing new
+ * ones, with the {@code sync} strategy of {@code hibernate.properties}, which refreshes the searchers after every
+ * transaction, or with the {@link RefreshScheduler}.
+ * <p>
+ * The {@code search} scores are the query latencies, which with {@code sync} include opening the searcher that most
+ * searches find stale, and the {@code write} scores the commit latencies.  With the scheduler, each iteration ends by
+ * logging its {@link RefreshScheduler#report()}: how often the searchers were refreshed and how long opening them
+ * took, out of the way of the searches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class NrtRefreshBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( NrtRefreshBenchmark.class );
+
+	private static final Path ROOT = Paths.get( "target", "benchmark-indexes" );
+
+	private static final String[] TERMS = { "smith", "doe", "jane", "martin", "alice", "dubois", "eve" };
+
+	@Param({ "sync", "scheduled" })
+	private String mode;
+
+	@Param({ "100" })
+	private long refreshIntervalMillis;
+
+	@Param({ "1000000" })
+	private long documentCount;
+
+	private final MassIndexing massIndexing = new MassIndexing()
+			.batchSizeToLoadObjects( 100 );
+
+	private final AtomicLong ids = new AtomicLong();
+
+	private RefreshScheduler scheduler;
+
+	private SessionFactory sessionFactory;
+
+	@Setup(Level.Trial)
+	public void buildIndex() throws InterruptedException {
+		Map<String, Object> settings = new HashMap<>( massIndexing.settings() );
+		if ( "scheduled".equals( mode ) ) {
+			scheduler = new RefreshScheduler()
+					.refreshInterval( Duration.ofMillis( refreshIntervalMillis ) )
+					.warmer( SearcherWarmer.termsAndNorms( "name" ) );
+			settings.putAll( scheduler.settings() );
+		}
+		settings.put( "hibernate.search.backend.directory.root", ROOT.toString() );
+		settings.put( "hibernate.search.schema_management.strategy", "drop-and-create" );
+		// hibernate.properties of the template first, then these settings
+		StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().applySettings( settings );
+		sessionFactory = new MetadataSources( registryBuilder.build() )
+				.addAnnotatedClass( YourAnnotatedEntity.class )
+				.buildMetadata()
+				.buildSessionFactory();
+
+		EntityRows.insert( sessionFactory, documentCount );
+		massIndexing.run( sessionFactory, YourAnnotatedEntity.class );
+		ids.set( documentCount );
+		if ( scheduler != null ) {
+			scheduler.start( sessionFactory, YourAnnotatedEntity.class );
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void logRefreshes() {
+		if ( scheduler == null ) {
+			LOG.infof( "%s: %d transactions, each refreshing the searchers", mode, ids.get() - documentCount );
+		}
+		else {
+			LOG.infof( "%s: %s", mode, scheduler.report() );
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteIndex() throws IOException {
+		if ( scheduler != null ) {
+			scheduler.close();
+		}
+		sessionFactory.close();
+		if ( Files.exists( ROOT ) ) {
+			try ( Stream<Path> files = Files.walk( ROOT ) ) {
+				for ( Path file : files.sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ) ) {
+					Files.delete( file );
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	@Group("nrt")
+	@GroupThreads(2)
+	public void write() {
+		long id = ids.incrementAndGet();
+		try ( Session session = sessionFactory.openSession() ) {
+			session.getTransaction().begin();
+			session.persist( new YourAnnotatedEntity( id, "Jane Smith " + id ) );
+			session.getTransaction().commit();
+		}
+	}
+
+	@Benchmark
+	@Group("nrt")
+	@GroupThreads(4)
+	public List<Long> search() {
+		try ( Session session = sessionFactory.openSession() ) {
+			return Search.session( session ).search( YourAnnotatedEntity.class )
+					.select( f -> f.id( Long.class ) )
+					.where( f -> f.match().field( "name" ).matching( randomTerm() ) )
+					.fetchHits( 20 );
+		}
+	}
+
+	private static String randomTerm() {
+		return TERMS[ThreadLocalRandom.current().nextInt( TERMS.length )];
+	}
+}
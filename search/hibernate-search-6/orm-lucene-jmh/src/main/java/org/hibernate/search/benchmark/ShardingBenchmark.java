@@ -0,0 +1,149 @@
+package org.hibernate.search.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.bugs.sharding.ShardedEntity;
+import org.hibernate.search.bugs.sharding.ShardedSearch;
+import org.hibernate.search.mapper.orm.Search;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The index of {@link ShardedEntity} split in {@code shardCount} shards, as in {@code ShardingIT}.
+ * <p>
+ * The trial inserts the rows and logs how fast the mass indexer built the shards.  Then {@code index} persists one more
+ * entity per transaction, which only writes to the shard it is routed to, {@code search} runs the match of
+ * {@code YourIT} through the shards one after the other, as a search without routing does, and
+ * {@code shardedSearch} through {@link ShardedSearch}, one thread per shard.  Both searches return the 20 best hits,
+ * loaded from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ShardingBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( ShardingBenchmark.class );
+
+	private static final Path ROOT = Paths.get( "target", "benchmark-indexes" );
+
+	private static final String[] TERMS = { "smith", "doe", "jane", "martin", "alice", "dubois", "eve" };
+
+	@Param({ "1", "2", "4", "8" })
+	private int shardCount;
+
+	@Param({ "1000000" })
+	private long documentCount;
+
+	private final MassIndexing massIndexing = new MassIndexing()
+			.batchSizeToLoadObjects( 100 );
+
+	private final AtomicLong ids = new AtomicLong();
+
+	private SessionFactory sessionFactory;
+
+	private ShardedSearch shardedSearch;
+
+	@Setup(Level.Trial)
+	public void buildIndex() throws InterruptedException {
+		Map<String, Object> settings = new HashMap<>( massIndexing.settings() );
+		settings.putAll( ShardedSearch.settings( ShardedEntity.class, shardCount ) );
+		settings.put( "hibernate.search.backend.directory.root", ROOT.toString() );
+		settings.put( "hibernate.search.schema_management.strategy", "drop-and-create" );
+		// hibernate.properties of the template first, then these settings
+		StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().applySettings( settings );
+		sessionFactory = new MetadataSources( registryBuilder.build() )
+				.addAnnotatedClass( ShardedEntity.class )
+				.buildMetadata()
+				.buildSessionFactory();
+
+		EntityRows.insert( sessionFactory, ShardedEntity.class, documentCount );
+		long start = System.nanoTime();
+		massIndexing.run( sessionFactory, ShardedEntity.class );
+		long indexingNanos = System.nanoTime() - start;
+		LOG.infof( "%d shards: %d documents mass indexed in %d ms, %.0f documents per second",
+				shardCount,
+				documentCount,
+				TimeUnit.NANOSECONDS.toMillis( indexingNanos ),
+				documentCount * 1e9 / indexingNanos );
+
+		ids.set( documentCount );
+		shardedSearch = new ShardedSearch( sessionFactory, shardCount );
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteIndex() throws IOException {
+		shardedSearch.close();
+		sessionFactory.close();
+		if ( Files.exists( ROOT ) ) {
+			try ( Stream<Path> files = Files.walk( ROOT ) ) {
+				for ( Path file : files.sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ) ) {
+					Files.delete( file );
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void index() {
+		long id = ids.incrementAndGet();
+		try ( Session session = sessionFactory.openSession() ) {
+			session.getTransaction().begin();
+			session.persist( new ShardedEntity( id, "Jane Smith " + id ) );
+			session.getTransaction().commit();
+		}
+	}
+
+	@Benchmark
+	public List<ShardedEntity> search() {
+		try ( Session session = sessionFactory.openSession() ) {
+			return Search.session( session ).search( ShardedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( randomTerm() ) )
+					.fetchHits( 20 );
+		}
+	}
+
+	@Benchmark
+	public List<ShardedEntity> shardedSearch() {
+		try ( Session session = sessionFactory.openSession() ) {
+			return shardedSearch.fetchHits( session, ShardedEntity.class,
+					f -> f.match().field( "name" ).matching( randomTerm() ), 20 );
+		}
+	}
+
+	private static String randomTerm() {
+		return TERMS[ThreadLocalRandom.current().nextInt( TERMS.length )];
+	}
+}
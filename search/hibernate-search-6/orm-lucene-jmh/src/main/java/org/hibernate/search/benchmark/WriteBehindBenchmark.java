@@ -0,0 +1,122 @@
+package org.hibernate.search.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.search.bugs.YourAnnotatedEntity;
+import org.hibernate.search.bugs.writebehind.WriteBehindIndexing;
+import org.jboss.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The write path of {@code WriteBehindIndexingIT}: transactions persisting one {@link YourAnnotatedEntity} each, from
+ * a few threads, with the {@code sync} strategy of {@code hibernate.properties}, which commits and refreshes the index
+ * before each transaction returns, or with {@link WriteBehindIndexing}.
+ * <p>
+ * The score is the rate of committed transactions.  With write-behind, the index lags behind them: each iteration ends
+ * by waiting for the pending plans to be applied, so that the next one starts from an empty queue, and by logging
+ * {@link WriteBehindIndexing#report()}, the queue depth and the lag between a commit and its index works.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+public class WriteBehindBenchmark {
+
+	private static final Logger LOG = Logger.getLogger( WriteBehindBenchmark.class );
+
+	private static final Path ROOT = Paths.get( "target", "benchmark-indexes" );
+
+	@Param({ "sync", "write-behind" })
+	private String mode;
+
+	@Param({ "1000" })
+	private int maxPendingPlans;
+
+	private final AtomicLong ids = new AtomicLong();
+
+	private WriteBehindIndexing writeBehind;
+
+	private SessionFactory sessionFactory;
+
+	@Setup(Level.Trial)
+	public void openSessionFactory() {
+		Map<String, Object> settings = new HashMap<>();
+		if ( "write-behind".equals( mode ) ) {
+			writeBehind = new WriteBehindIndexing().maxPendingPlans( maxPendingPlans );
+			settings.putAll( writeBehind.settings() );
+		}
+		settings.put( "hibernate.search.backend.directory.root", ROOT.toString() );
+		settings.put( "hibernate.search.schema_management.strategy", "drop-and-create" );
+		// hibernate.properties of the template first, then these settings
+		StandardServiceRegistryBuilder registryBuilder = new StandardServiceRegistryBuilder().applySettings( settings );
+		sessionFactory = new MetadataSources( registryBuilder.build() )
+				.addAnnotatedClass( YourAnnotatedEntity.class )
+				.buildMetadata()
+				.buildSessionFactory();
+	}
+
+	@TearDown(Level.Iteration)
+	public void awaitIndexing() throws InterruptedException {
+		if ( writeBehind == null ) {
+			LOG.infof( "%s: %d transactions committed and indexed", mode, ids.get() );
+			return;
+		}
+		if ( !writeBehind.awaitIdle( Duration.ofMinutes( 1 ) ) ) {
+			LOG.warnf( "%s: plans still pending after a minute", mode );
+		}
+		LOG.infof( "%s: %s", mode, writeBehind.report() );
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteIndex() throws IOException {
+		sessionFactory.close();
+		if ( Files.exists( ROOT ) ) {
+			try ( Stream<Path> files = Files.walk( ROOT ) ) {
+				for ( Path file : files.sorted( Comparator.reverseOrder() ).collect( Collectors.toList() ) ) {
+					Files.delete( file );
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void persist() {
+		long id = ids.incrementAndGet();
+		try ( Session session = sessionFactory.openSession() ) {
+			session.getTransaction().begin();
+			session.persist( new YourAnnotatedEntity( id, "Jane Smith " + id ) );
+			session.getTransaction().commit();
+		}
+	}
+}
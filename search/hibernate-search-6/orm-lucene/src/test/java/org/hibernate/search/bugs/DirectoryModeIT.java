@@ -0,0 +1,128 @@
+package org.hibernate.search.bugs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.bugs.directory.DirectoryMode;
+import org.hibernate.search.bugs.directory.MappedFiles;
+import org.hibernate.search.mapper.orm.Search;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Runs the search of {@link YourIT} with the index of {@link YourAnnotatedEntity} in each {@link DirectoryMode},
+ * chosen for the whole backend or for that index only, and checks where the index ended up.
+ * <p>
+ * To run it in the modes of your choice only, set them from the command line, e.g.
+ * {@code mvn verify -Dit.test=DirectoryModeIT -Ddirectory.mode=nio -Ddirectory.mode.YourAnnotatedEntity=heap}.
+ */
+@RunWith(Parameterized.class)
+public class DirectoryModeIT extends SearchTestBase {
+
+	private static final String INDEX_NAME = "YourAnnotatedEntity";
+
+	@Parameterized.Parameters(name = "backend {0}, index {1}")
+	public static List<Object[]> modes() {
+		DirectoryMode backendMode = DirectoryMode.fromSystemProperty( null );
+		DirectoryMode indexMode = DirectoryMode.fromSystemProperty( INDEX_NAME );
+		if ( backendMode != null || indexMode != null ) {
+			// Lucene maps the files of the index by default on 64-bit platforms
+			return Collections.singletonList( new Object[]{
+					backendMode == null ? DirectoryMode.MMAP : backendMode, indexMode } );
+		}
+		return Arrays.asList(
+				new Object[]{ DirectoryMode.MMAP, null },
+				new Object[]{ DirectoryMode.NIO, null },
+				new Object[]{ DirectoryMode.HEAP, null },
+				new Object[]{ DirectoryMode.HEAP, DirectoryMode.MMAP },
+				new Object[]{ DirectoryMode.MMAP, DirectoryMode.HEAP }
+		);
+	}
+
+	private final DirectoryMode backendMode;
+
+	private final DirectoryMode indexMode;
+
+	private final Path root;
+
+	public DirectoryModeIT(DirectoryMode backendMode, DirectoryMode indexMode) {
+		this.backendMode = backendMode;
+		this.indexMode = indexMode;
+		// A root of its own, without the files of an index written in another mode
+		this.root = Paths.get( "target", "test-indexes" + System.getProperty( "test.fork.suffix", "" ),
+				"directory-" + backendMode.name().toLowerCase( Locale.ROOT )
+						+ ( indexMode == null ? "" : "-" + indexMode.name().toLowerCase( Locale.ROOT ) ) );
+	}
+
+	@Override
+	public Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[]{ YourAnnotatedEntity.class };
+	}
+
+	@Override
+	protected Map<String, Object> getSettings() {
+		Map<String, Object> settings = new HashMap<>( backendMode.settings() );
+		if ( indexMode != null ) {
+			settings.putAll( indexMode.settings( INDEX_NAME ) );
+		}
+		settings.put( "hibernate.search.backend.directory.root", root.toString() );
+		return settings;
+	}
+
+	@Test
+	public void testSearchInEachMode() throws IOException {
+		try ( Session s = getSessionFactory().openSession() ) {
+			Transaction tx = s.beginTransaction();
+			s.persist( new YourAnnotatedEntity( 1L, "Jane Smith" ) );
+			s.persist( new YourAnnotatedEntity( 2L, "John Doe" ) );
+			tx.commit();
+		}
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			List<YourAnnotatedEntity> hits = Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "smith" ) )
+					.fetchHits( 20 );
+
+			assertThat( hits )
+					.extracting( YourAnnotatedEntity::getId )
+					.containsExactly( 1L );
+		}
+
+		DirectoryMode mode = indexMode == null ? backendMode : indexMode;
+		Path indexDirectory = root.resolve( INDEX_NAME );
+		if ( mode.isPersistent() ) {
+			try ( Stream<Path> files = Files.list( indexDirectory ) ) {
+				assertThat( files ).isNotEmpty();
+			}
+		}
+		else {
+			assertThat( indexDirectory ).doesNotExist();
+		}
+		if ( MappedFiles.isSupported() ) {
+			// The searcher opened by the commit has mapped the segments of the index, or read them without mapping
+			int mappings = MappedFiles.of( indexDirectory ).getMappings();
+			if ( mode == DirectoryMode.MMAP ) {
+				assertThat( mappings ).isPositive();
+			}
+			else {
+				assertThat( mappings ).isZero();
+			}
+		}
+	}
+
+}
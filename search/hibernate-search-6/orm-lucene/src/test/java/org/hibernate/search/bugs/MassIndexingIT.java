@@ -0,0 +1,99 @@
+package org.hibernate.search.bugs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.bugs.massindexing.ProgressMonitor;
+import org.hibernate.search.mapper.orm.Search;
+
+import org.junit.Test;
+
+/**
+ * Rebuilds the index of {@link YourAnnotatedEntity} from rows inserted straight into H2; the {@link ProgressMonitor}
+ * logs how fast it went.
+ * <p>
+ * A few thousand rows by default; to benchmark a rebuild, raise the rows and tune the run from the command line, e.g.
+ * {@code mvn verify -Dit.test=MassIndexingIT -Dmassindexing.rows=5000000 -Dmassindexing.threads=8
+ * -Dmassindexing.batchSize=100 -Dmassindexing.idFetchSize=1000 -Dmassindexing.mergeFactor=20}.
+ */
+public class MassIndexingIT extends SearchTestBase {
+
+	private static final long ROWS = Long.getLong( "massindexing.rows", 5_000L );
+
+	private final MassIndexing massIndexing = new MassIndexing()
+			.threadsToLoadObjects( Integer.getInteger( "massindexing.threads", 6 ) )
+			.batchSizeToLoadObjects( Integer.getInteger( "massindexing.batchSize", 10 ) )
+			.idFetchSize( Integer.getInteger( "massindexing.idFetchSize", 100 ) )
+			.mergeFactor( Integer.getInteger( "massindexing.mergeFactor", 10 ) )
+			.mergeSegmentsOnFinish( Boolean.getBoolean( "massindexing.mergeSegmentsOnFinish" ) )
+			.logInterval( Duration.ofSeconds( Long.getLong( "massindexing.logInterval", 10L ) ) );
+
+	@Override
+	public Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[]{ YourAnnotatedEntity.class };
+	}
+
+	@Override
+	protected Map<String, Object> getSettings() {
+		return massIndexing.settings();
+	}
+
+	@Test
+	public void testMassIndexingIndexesAllRows() throws InterruptedException {
+		EntityRows.insert( getSessionFactory(), ROWS );
+
+		ProgressMonitor progress = massIndexing.run( getSessionFactory(), YourAnnotatedEntity.class );
+
+		assertThat( progress.isCompleted() ).isTrue();
+		assertThat( progress.getTotalCount() ).isEqualTo( ROWS );
+		assertThat( progress.getDocumentsAdded() ).isEqualTo( ROWS );
+		assertThat( progress.getEntitiesPerSecond() ).isPositive();
+		assertThat( progress.getEta() ).isZero();
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			assertThat( Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.matchAll() )
+					.fetchTotalHitCount() )
+					.isEqualTo( ROWS );
+			assertThat( Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "smith" ) )
+					.fetchTotalHitCount() )
+					.isEqualTo( EntityRows.countWithLastName( ROWS, "Smith" ) );
+		}
+	}
+
+	@Test
+	public void testMassIndexingReplacesStaleDocuments() throws InterruptedException {
+		try ( Session session = getSessionFactory().openSession() ) {
+			session.getTransaction().begin();
+			session.persist( new YourAnnotatedEntity( 1L, "Jane Smith" ) );
+			session.getTransaction().commit();
+		}
+		// Renamed behind the back of Hibernate ORM: the index still has the old name
+		try ( Session session = getSessionFactory().openSession() ) {
+			session.getTransaction().begin();
+			session.createNativeQuery( "UPDATE YourAnnotatedEntity SET name = 'Jane Doe'" ).executeUpdate();
+			session.getTransaction().commit();
+		}
+
+		massIndexing.run( getSessionFactory(), YourAnnotatedEntity.class );
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			assertThat( Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "smith" ) )
+					.fetchTotalHitCount() )
+					.isZero();
+			assertThat( Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "doe" ) )
+					.fetchHits( 20 ) )
+					.extracting( YourAnnotatedEntity::getId )
+					.containsExactly( 1L );
+		}
+	}
+
+}
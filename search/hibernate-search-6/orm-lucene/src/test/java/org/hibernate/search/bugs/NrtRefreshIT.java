@@ -0,0 +1,189 @@
+package org.hibernate.search.bugs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Session;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.bugs.nrt.RefreshScheduler;
+import org.hibernate.search.bugs.nrt.SearcherWarmer;
+import org.hibernate.search.mapper.orm.Search;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Searches {@link YourAnnotatedEntity} while a few threads keep committing new ones, with the {@code sync} strategy of
+ * {@code hibernate.properties}, which refreshes the searchers after every transaction, then with the
+ * {@link RefreshScheduler}, and checks that no search misses the writes committed before the test, and that the
+ * searches that must see all the writes committed before them do.
+ * <p>
+ * To try it under a heavier load, raise it from the command line, e.g. {@code mvn verify -Dit.test=NrtRefreshIT
+ * -Dnrt.rows=1000000 -Dnrt.transactions=20000 -Dnrt.threads=8 -Dnrt.refreshInterval=1000}.
+ */
+@RunWith(Parameterized.class)
+public class NrtRefreshIT extends SearchTestBase {
+
+	private static final long ROWS = Long.getLong( "nrt.rows", 2_000L );
+
+	private static final int TRANSACTIONS = Integer.getInteger( "nrt.transactions", 40 );
+
+	private static final int THREADS = Integer.getInteger( "nrt.threads", 4 );
+
+	/**
+	 * One search out of this many needs to see the writes committed before it.
+	 */
+	private static final int READ_YOUR_WRITES_EVERY = 10;
+
+	@Parameterized.Parameters(name = "{0}")
+	public static Object[] modes() {
+		return new Object[]{ "sync", "scheduled" };
+	}
+
+	private final MassIndexing massIndexing = new MassIndexing();
+
+	private final AtomicLong committedTransactions = new AtomicLong();
+
+	private final RefreshScheduler scheduler;
+
+	public NrtRefreshIT(String mode) {
+		this.scheduler = "scheduled".equals( mode )
+				? new RefreshScheduler()
+						.refreshInterval( Duration.ofMillis( Long.getLong( "nrt.refreshInterval", 100L ) ) )
+						.warmer( SearcherWarmer.termsAndNorms( "name" ) )
+				: null;
+	}
+
+	@Override
+	public Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[]{ YourAnnotatedEntity.class };
+	}
+
+	@Override
+	protected Map<String, Object> getSettings() {
+		Map<String, Object> settings = new HashMap<>( massIndexing.settings() );
+		if ( scheduler != null ) {
+			settings.putAll( scheduler.settings() );
+		}
+		return settings;
+	}
+
+	@Before
+	public void startScheduler() {
+		if ( scheduler != null ) {
+			scheduler.start( getSessionFactory(), YourAnnotatedEntity.class );
+		}
+	}
+
+	@After
+	public void stopScheduler() {
+		if ( scheduler != null ) {
+			scheduler.close();
+		}
+	}
+
+	@Test
+	public void testReadYourWrites() {
+		// Opens a searcher before the write
+		assertThat( countSmiths() ).isZero();
+		long scheduledBeforeWrite = scheduler == null ? 0 : scheduler.getScheduledRefreshes();
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			session.getTransaction().begin();
+			session.persist( new YourAnnotatedEntity( 1L, "Jane Smith" ) );
+			session.getTransaction().commit();
+		}
+
+		if ( scheduler != null ) {
+			// Unless the scheduler got there first, the searcher opened above does not see the write yet
+			boolean refreshedOnDemand = scheduler.refreshIfStale();
+			assertThat( refreshedOnDemand || scheduler.getScheduledRefreshes() > scheduledBeforeWrite )
+					.as( "refreshed after the write, on demand or by the scheduler" )
+					.isTrue();
+			assertThat( scheduler.refreshIfStale() ).isFalse();
+		}
+		assertThat( countSmiths() ).isEqualTo( 1 );
+	}
+
+	@Test
+	public void testSearchesSeeTheWritesUnderSustainedIndexing() throws Exception {
+		EntityRows.insert( getSessionFactory(), ROWS );
+		massIndexing.run( getSessionFactory(), YourAnnotatedEntity.class );
+		long smiths = EntityRows.countWithLastName( ROWS, "Smith" );
+
+		ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+		try {
+			List<Future<?>> writers = commitInParallel( executor );
+			boolean writing = true;
+			for ( int query = 0; writing; query++ ) {
+				boolean readYourWrites = query % READ_YOUR_WRITES_EVERY == 0;
+				long committed = committedTransactions.get();
+				if ( readYourWrites && scheduler != null ) {
+					scheduler.refreshIfStale();
+				}
+				long count = countSmiths();
+				assertThat( count ).isGreaterThanOrEqualTo( smiths );
+				if ( readYourWrites || scheduler == null ) {
+					assertThat( count ).isGreaterThanOrEqualTo( smiths + committed );
+				}
+				writing = writers.stream().anyMatch( writer -> !writer.isDone() );
+			}
+			for ( Future<?> writer : writers ) {
+				writer.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		if ( scheduler != null ) {
+			scheduler.refreshIfStale();
+		}
+		assertThat( countSmiths() ).isEqualTo( smiths + TRANSACTIONS );
+		if ( scheduler != null ) {
+			assertThat( scheduler.getScheduledRefreshes() + scheduler.getOnDemandRefreshes() ).isPositive();
+			// The point of scheduling them: not a refresh per transaction, as with sync
+			assertThat( scheduler.getScheduledRefreshes() ).isLessThan( committedTransactions.get() );
+		}
+	}
+
+	private List<Future<?>> commitInParallel(ExecutorService executor) {
+		AtomicLong ids = new AtomicLong( ROWS );
+		List<Future<?>> writers = new ArrayList<>();
+		for ( int i = 0; i < THREADS; i++ ) {
+			writers.add( executor.submit( () -> {
+				long id;
+				while ( ( id = ids.incrementAndGet() ) <= ROWS + TRANSACTIONS ) {
+					try ( Session session = getSessionFactory().openSession() ) {
+						session.getTransaction().begin();
+						session.persist( new YourAnnotatedEntity( id, "Jane Smith " + id ) );
+						session.getTransaction().commit();
+					}
+					committedTransactions.incrementAndGet();
+				}
+			} ) );
+		}
+		return writers;
+	}
+
+	private long countSmiths() {
+		try ( Session session = getSessionFactory().openSession() ) {
+			return Search.session( session ).search( YourAnnotatedEntity.class )
+					.where( f -> f.match().field( "name" ).matching( "smith" ) )
+					.fetchTotalHitCount();
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package org.hibernate.search.bugs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.bugs.massindexing.EntityRows;
+import org.hibernate.search.bugs.massindexing.MassIndexing;
+import org.hibernate.search.bugs.sharding.HashRoutingBinder;
+import org.hibernate.search.bugs.sharding.ShardedEntity;
+import org.hibernate.search.bugs.sharding.ShardedSearch;
+import org.hibernate.search.mapper.orm.Search;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Splits the index of {@link ShardedEntity} in shards, and checks that each shard holds the documents that the
+ * {@link HashRoutingBinder} sends to it, and that the {@link ShardedSearch} fanning out to all of them at once finds
+ * the best hits.
+ * <p>
+ * The shard counts and rows are small by default; to try more, e.g. {@code mvn verify -Dit.test=ShardingIT
+ * -Dsharding.shardCounts=1,2,4,8,16 -Dsharding.rows=1000000 -Dmassindexing.threads=8}.
+ */
+@RunWith(Parameterized.class)
+public class ShardingIT extends SearchTestBase {
+
+	private static final long ROWS = Long.getLong( "sharding.rows", 10_000L );
+
+	private static final String[] TERMS = { "smith", "doe", "jane", "martin", "alice", "dubois", "eve" };
+
+	@Parameterized.Parameters(name = "{0} shards")
+	public static Object[] shardCounts() {
+		return Arrays.stream( System.getProperty( "sharding.shardCounts", "1,4" ).split( "," ) )
+				.map( count -> Integer.valueOf( count.trim() ) )
+				.toArray();
+	}
+
+	private final int shardCount;
+
+	private final MassIndexing massIndexing = new MassIndexing()
+			.threadsToLoadObjects( Integer.getInteger( "massindexing.threads", 6 ) )
+			.batchSizeToLoadObjects( Integer.getInteger( "massindexing.batchSize", 100 ) );
+
+	private ShardedSearch shardedSearch;
+
+	public ShardingIT(int shardCount) {
+		this.shardCount = shardCount;
+	}
+
+	@Override
+	public Class<?>[] getAnnotatedClasses() {
+		return new Class<?>[]{ ShardedEntity.class };
+	}
+
+	@Override
+	protected Map<String, Object> getSettings() {
+		Map<String, Object> settings = new HashMap<>( massIndexing.settings() );
+		settings.putAll( ShardedSearch.settings( ShardedEntity.class, shardCount ) );
+		return settings;
+	}
+
+	@Before
+	public void openShardedSearch() {
+		shardedSearch = new ShardedSearch( getSessionFactory(), shardCount );
+	}
+
+	@After
+	public void closeShardedSearch() {
+		shardedSearch.close();
+	}
+
+	@Test
+	public void testShardedSearchFindsTheBestHits() {
+		try ( Session s = getSessionFactory().openSession() ) {
+			Transaction tx = s.beginTransaction();
+			for ( long id = 1; id <= 20; id++ ) {
+				s.persist( new ShardedEntity( id, id == 7 ? "Jane Smith" : "John Doe " + id ) );
+			}
+			tx.commit();
+		}
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			assertThat( shardedSearch.fetchHits( session, ShardedEntity.class,
+					f -> f.match().field( "name" ).matching( "smith" ), 20 ) )
+					.extracting( ShardedEntity::getId )
+					.containsExactly( 7L );
+			assertThat( shardedSearch.fetchHits( session, ShardedEntity.class,
+					f -> f.match().field( "name" ).matching( "doe" ), 5 ) )
+					.hasSize( 5 )
+					.allSatisfy( hit -> assertThat( hit.getName() ).startsWith( "John Doe" ) );
+		}
+	}
+
+	@Test
+	public void testEachShardHoldsItsShareOfTheRows() throws InterruptedException {
+		EntityRows.insert( getSessionFactory(), ShardedEntity.class, ROWS );
+		massIndexing.run( getSessionFactory(), ShardedEntity.class );
+
+		long[] expected = new long[shardCount];
+		for ( long id = 1; id <= ROWS; id++ ) {
+			expected[Integer.parseInt( HashRoutingBinder.routingKey( id, shardCount ) )]++;
+		}
+
+		try ( Session session = getSessionFactory().openSession() ) {
+			assertThat( Search.session( session ).search( ShardedEntity.class )
+					.where( f -> f.matchAll() )
+					.fetchTotalHitCount() )
+					.isEqualTo( ROWS );
+			for ( int shard = 0; shard < shardCount; shard++ ) {
+				assertThat( Search.session( session ).search( ShardedEntity.class )
+						.where( f -> f.matchAll() )
+						.routing( HashRoutingBinder.shardIdentifier( shard ) )
+						.fetchTotalHitCount() )
+						.as( "documents in shard %d", shard )
+						.isEqualTo( expected[shard] )
+						.isPositive();
+			}
+
+			// Every row matches one first name and one last name: the fan-out gets the limit
+			for ( String term : TERMS ) {
+				assertThat( shardedSearch.fetchHits( session, ShardedEntity.class,
+						f -> f.match().field( "name" ).matching( term ), 20 ) )
+						.hasSize( 20 )
+						.allSatisfy( hit -> assertThat( hit.getName().toLowerCase() ).contains( term ) );
+				session.clear();
+			}
+		}
+	}
+
+}
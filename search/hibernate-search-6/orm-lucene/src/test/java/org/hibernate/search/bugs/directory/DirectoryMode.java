@@ -0,0 +1,97 @@
+package org.hibernate.search.bugs.directory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How the Lucene backend stores and reads an index: the files of the index memory-mapped ({@link #MMAP}) or read
+ * through NIO file channels ({@link #NIO}) from {@code directory.root}, or the whole index kept in the heap
+ * ({@link #HEAP}), lost when the session factory closes.
+ * <p>
+ * Choose the mode of all the indexes with {@link #settings()} and override it for some of them with
+ * {@link #settings(String)}.  {@code DirectoryModeIT} also reads them from the command line, see
+ * {@link #fromSystemProperty(String)}, e.g.
+ * {@code mvn verify -Dit.test=DirectoryModeIT -Ddirectory.mode=nio -Ddirectory.mode.YourAnnotatedEntity=heap}.
+ */
+public enum DirectoryMode {
+
+	/**
+	 * Reads go through the page cache without a copy; the mapped files count in the resident memory of the JVM, but
+	 * not in its heap.
+	 */
+	MMAP( "local-filesystem", "mmap" ),
+	/**
+	 * Reads copy the file contents from the page cache to buffers, which works the same on every platform.
+	 */
+	NIO( "local-filesystem", "nio" ),
+	/**
+	 * Reads copy from byte arrays in the heap: no I/O, but the index has to be rebuilt whenever the JVM starts.
+	 */
+	HEAP( "local-heap", null );
+
+	private static final String BACKEND_PREFIX = "hibernate.search.backend.";
+
+	private static final String PROPERTY = "directory.mode";
+
+	private final String type;
+
+	private final String filesystemAccessStrategy;
+
+	DirectoryMode(String type, String filesystemAccessStrategy) {
+		this.type = type;
+		this.filesystemAccessStrategy = filesystemAccessStrategy;
+	}
+
+	/**
+	 * @return whether the index survives the session factory, in files under {@code directory.root}
+	 */
+	public boolean isPersistent() {
+		return filesystemAccessStrategy != null;
+	}
+
+	/**
+	 * @return the settings storing all the indexes in this mode, to add to the configuration of the session factory
+	 */
+	public Map<String, Object> settings() {
+		return settingsWithPrefix( BACKEND_PREFIX );
+	}
+
+	/**
+	 * @return the settings storing the given index in this mode, whatever the mode of the other indexes
+	 */
+	public Map<String, Object> settings(String indexName) {
+		return settingsWithPrefix( BACKEND_PREFIX + "indexes." + indexName + "." );
+	}
+
+	private Map<String, Object> settingsWithPrefix(String prefix) {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put( prefix + "directory.type", type );
+		if ( filesystemAccessStrategy != null ) {
+			settings.put( prefix + "directory.filesystem_access.strategy", filesystemAccessStrategy );
+		}
+		return settings;
+	}
+
+	/**
+	 * @return the mode set by the {@code directory.mode} system property for all the indexes when {@code indexName} is
+	 * {@code null}, or by the {@code directory.mode.<index name>} one for the given index; {@code null} when that
+	 * property is not set
+	 */
+	public static DirectoryMode fromSystemProperty(String indexName) {
+		String property = indexName == null ? PROPERTY : PROPERTY + "." + indexName;
+		String mode = System.getProperty( property );
+		return mode == null ? null : parse( property, mode );
+	}
+
+	private static DirectoryMode parse(String property, String value) {
+		try {
+			return valueOf( value.trim().toUpperCase( Locale.ROOT ) );
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException( "Invalid value for " + property + ": '" + value + "', expected one of "
+					+ Arrays.toString( values() ).toLowerCase( Locale.ROOT ), e );
+		}
+	}
+}
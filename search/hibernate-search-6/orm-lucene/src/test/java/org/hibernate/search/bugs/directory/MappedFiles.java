@@ -0,0 +1,112 @@
+package org.hibernate.search.bugs.directory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * The memory mappings of this JVM on the files of a directory, as listed by {@code /proc/self/smaps}: Linux only.
+ * <p>
+ * With the {@link DirectoryMode#MMAP} mode, the resident part of the mapped index files is the share of the page cache
+ * that the searches have touched, the memory that the index actually takes beyond its size on disk.
+ */
+public final class MappedFiles {
+
+	private static final Path SMAPS = Paths.get( "/proc/self/smaps" );
+
+	/**
+	 * The first line of a mapping: address range, permissions, offset, device, inode, then the path of the file if any.
+	 */
+	private static final Pattern MAPPING = Pattern.compile(
+			"^[0-9a-f]+-[0-9a-f]+\\s+\\S+\\s+\\S+\\s+\\S+\\s+\\d+\\s*(.*)$" );
+
+	private static final Pattern SIZE = Pattern.compile( "^(Size|Rss):\\s+(\\d+) kB$" );
+
+	private final int mappings;
+
+	private final long mappedBytes;
+
+	private final long residentBytes;
+
+	private MappedFiles(int mappings, long mappedBytes, long residentBytes) {
+		this.mappings = mappings;
+		this.mappedBytes = mappedBytes;
+		this.residentBytes = residentBytes;
+	}
+
+	/**
+	 * @return whether this platform lists the mappings of a process, and {@link #of(Path)} can tell them
+	 */
+	public static boolean isSupported() {
+		return Files.isReadable( SMAPS );
+	}
+
+	/**
+	 * @return the mappings of the files under the given directory, none if {@link #isSupported() not supported}
+	 */
+	public static MappedFiles of(Path directory) {
+		if ( !isSupported() ) {
+			return new MappedFiles( 0, 0, 0 );
+		}
+		String prefix = directory.toAbsolutePath().normalize() + "/";
+		int mappings = 0;
+		long mappedBytes = 0;
+		long residentBytes = 0;
+		boolean inDirectory = false;
+		try ( BufferedReader reader = Files.newBufferedReader( SMAPS, StandardCharsets.UTF_8 ) ) {
+			for ( String line = reader.readLine(); line != null; line = reader.readLine() ) {
+				Matcher mapping = MAPPING.matcher( line );
+				if ( mapping.matches() ) {
+					inDirectory = mapping.group( 1 ).startsWith( prefix );
+					if ( inDirectory ) {
+						mappings++;
+					}
+					continue;
+				}
+				Matcher size = SIZE.matcher( line );
+				if ( inDirectory && size.matches() ) {
+					long bytes = Long.parseLong( size.group( 2 ) ) * 1024;
+					if ( "Size".equals( size.group( 1 ) ) ) {
+						mappedBytes += bytes;
+					}
+					else {
+						residentBytes += bytes;
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( "Reading " + SMAPS + " failed", e );
+		}
+		return new MappedFiles( mappings, mappedBytes, residentBytes );
+	}
+
+	public int getMappings() {
+		return mappings;
+	}
+
+	public long getMappedBytes() {
+		return mappedBytes;
+	}
+
+	/**
+	 * @return the bytes of the mapped files that this JVM has read and that are still in physical memory
+	 */
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+
+	@Override
+	public String toString() {
+		return format( "{0} mappings, {1,number,0.0} MB mapped, {2,number,0.0} MB resident",
+				mappings, mappedBytes / ( 1024.0 * 1024.0 ), residentBytes / ( 1024.0 * 1024.0 ) );
+	}
+}
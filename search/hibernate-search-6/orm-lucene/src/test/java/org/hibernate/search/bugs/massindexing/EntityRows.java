@@ -0,0 +1,85 @@
+package org.hibernate.search.bugs.massindexing;
+
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.search.bugs.YourAnnotatedEntity;
+
+/**
+ * Inserts {@link YourAnnotatedEntity} rows straight into the database, bypassing Hibernate ORM and so automatic
+ * indexing: millions of rows in seconds, ready for a {@link MassIndexing mass indexing} run.
+ * <p>
+ * The names combine a first name and a last name out of a few of each, so that a match on a name hits a predictable
+ * share of the rows.
+ */
+public final class EntityRows {
+
+	/**
+	 * Rows per statement, to keep the undo log of H2 small.
+	 */
+	private static final int CHUNK_SIZE = 100_000;
+
+	private static final String[] FIRST_NAMES = { "Jane", "John", "Alice", "Bob", "Carol", "Dave", "Eve" };
+
+	private static final String[] LAST_NAMES = { "Smith", "Doe", "Martin", "Bernard", "Dubois", "Moreau", "Laurent",
+			"Simon", "Michel", "Lefebvre", "Leroy" };
+
+	private EntityRows() {
+	}
+
+	/**
+	 * Inserts the rows with the identifiers 1 to {@code count}.
+	 */
+	public static void insert(SessionFactory sessionFactory, long count) {
+		insert( sessionFactory, YourAnnotatedEntity.class, count );
+	}
+
+	/**
+	 * Inserts the rows with the identifiers 1 to {@code count} into the table of an entity type with the same
+	 * {@code id} and {@code name} columns as {@link YourAnnotatedEntity}.
+	 */
+	public static void insert(SessionFactory sessionFactory, Class<?> entityType, long count) {
+		// H2 specific, like the rest of the configuration: the rows are generated by the database itself
+		String sql = "INSERT INTO " + entityType.getSimpleName() + " ( id, name ) "
+				+ "SELECT X, CONCAT( " + array( FIRST_NAMES ) + "[ MOD( X, " + FIRST_NAMES.length + " ) + 1 ], ' ', "
+				+ array( LAST_NAMES ) + "[ MOD( X, " + LAST_NAMES.length + " ) + 1 ] ) "
+				+ "FROM SYSTEM_RANGE( ?, ? )";
+		try ( Session session = sessionFactory.openSession() ) {
+			session.doWork( connection -> {
+				try ( PreparedStatement statement = connection.prepareStatement( sql ) ) {
+					for ( long first = 1; first <= count; first += CHUNK_SIZE ) {
+						statement.setLong( 1, first );
+						statement.setLong( 2, Math.min( count, first + CHUNK_SIZE - 1 ) );
+						statement.executeUpdate();
+					}
+				}
+			} );
+		}
+	}
+
+	/**
+	 * @return how many of the rows inserted by {@link #insert} have the given last name
+	 */
+	public static long countWithLastName(long count, String lastName) {
+		int index = Arrays.asList( LAST_NAMES ).indexOf( lastName );
+		if ( index < 0 ) {
+			return 0;
+		}
+		// The identifiers X with MOD( X, length ) == index, between 1 and count
+		long length = LAST_NAMES.length;
+		return count / length + ( index != 0 && count % length >= index ? 1 : 0 );
+	}
+
+	private static String array(String[] values) {
+		StringBuilder array = new StringBuilder( "ARRAY[ " );
+		for ( int i = 0; i < values.length; i++ ) {
+			if ( i > 0 ) {
+				array.append( ", " );
+			}
+			array.append( '\'' ).append( values[i] ).append( '\'' );
+		}
+		return array.append( " ]" ).toString();
+	}
+}
@@ -0,0 +1,144 @@
+package org.hibernate.search.bugs.massindexing;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.massindexing.MassIndexer;
+
+/**
+ * Rebuilds the indexes of some entity types from the database with the {@link MassIndexer}, instead of relying on
+ * automatic indexing: to index rows inserted without Hibernate ORM, or after a change to the mapping.
+ * <p>
+ * The loading side is tuned per run: the threads loading the entities, the size of their batches, and the fetch size
+ * of the scroll over the identifiers.  The merge policy of the Lucene index writers is a backend setting, read when
+ * the session factory is built, and so is the size of the connection pool: pass {@link #settings()} to the factory
+ * that runs the rebuild, typically one built for it.
+ * <pre>{@code
+ * MassIndexing massIndexing = new MassIndexing().threadsToLoadObjects( 8 ).mergeFactor( 20 );
+ * // ... build the session factory with massIndexing.settings() ...
+ * ProgressMonitor progress = massIndexing.run( sessionFactory, YourAnnotatedEntity.class );
+ * }</pre>
+ */
+public class MassIndexing {
+
+	private static final String POOL_SIZE = "hibernate.connection.pool_size";
+
+	private static final String MERGE_FACTOR = "hibernate.search.backend.io.merge.factor";
+
+	private static final String MERGE_MAX_SIZE = "hibernate.search.backend.io.merge.max_size";
+
+	private int threadsToLoadObjects = 6;
+
+	private int batchSizeToLoadObjects = 10;
+
+	private int idFetchSize = 100;
+
+	private Integer mergeFactor;
+
+	private Integer mergeMaxSizeInMegabytes;
+
+	private boolean mergeSegmentsOnFinish;
+
+	private Duration logInterval = Duration.ofSeconds( 10 );
+
+	public MassIndexing threadsToLoadObjects(int threadsToLoadObjects) {
+		if ( threadsToLoadObjects < 1 ) {
+			throw new IllegalArgumentException( "threadsToLoadObjects must be positive, was " + threadsToLoadObjects );
+		}
+		this.threadsToLoadObjects = threadsToLoadObjects;
+		return this;
+	}
+
+	/**
+	 * @param batchSizeToLoadObjects how many entities each loading thread fetches per query
+	 */
+	public MassIndexing batchSizeToLoadObjects(int batchSizeToLoadObjects) {
+		if ( batchSizeToLoadObjects < 1 ) {
+			throw new IllegalArgumentException( "batchSizeToLoadObjects must be positive, was " + batchSizeToLoadObjects );
+		}
+		this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+		return this;
+	}
+
+	/**
+	 * @param idFetchSize the JDBC fetch size of the scroll over the identifiers to index
+	 */
+	public MassIndexing idFetchSize(int idFetchSize) {
+		this.idFetchSize = idFetchSize;
+		return this;
+	}
+
+	/**
+	 * @param mergeFactor how many segments of a size are merged at once: higher means fewer merges during the
+	 * rebuild, but more segments to search until they are merged
+	 */
+	public MassIndexing mergeFactor(int mergeFactor) {
+		if ( mergeFactor < 2 ) {
+			throw new IllegalArgumentException( "mergeFactor must be at least 2, was " + mergeFactor );
+		}
+		this.mergeFactor = mergeFactor;
+		return this;
+	}
+
+	/**
+	 * @param mergeMaxSizeInMegabytes the size above which a segment is left out of the merges
+	 */
+	public MassIndexing mergeMaxSize(int mergeMaxSizeInMegabytes) {
+		if ( mergeMaxSizeInMegabytes < 1 ) {
+			throw new IllegalArgumentException( "mergeMaxSize must be positive, was " + mergeMaxSizeInMegabytes );
+		}
+		this.mergeMaxSizeInMegabytes = mergeMaxSizeInMegabytes;
+		return this;
+	}
+
+	/**
+	 * @param mergeSegmentsOnFinish whether to merge the index into a single segment once all the documents are added
+	 */
+	public MassIndexing mergeSegmentsOnFinish(boolean mergeSegmentsOnFinish) {
+		this.mergeSegmentsOnFinish = mergeSegmentsOnFinish;
+		return this;
+	}
+
+	public MassIndexing logInterval(Duration logInterval) {
+		this.logInterval = logInterval;
+		return this;
+	}
+
+	/**
+	 * @return the backend settings of the merge policy, and a connection pool large enough for the loading threads, to
+	 * add to the configuration of the session factory
+	 */
+	public Map<String, Object> settings() {
+		Map<String, Object> settings = new HashMap<>();
+		// One connection per loading thread, one for the scroll over the identifiers, one for the application
+		settings.put( POOL_SIZE, threadsToLoadObjects + 2 );
+		if ( mergeFactor != null ) {
+			settings.put( MERGE_FACTOR, mergeFactor );
+		}
+		if ( mergeMaxSizeInMegabytes != null ) {
+			settings.put( MERGE_MAX_SIZE, mergeMaxSizeInMegabytes );
+		}
+		return settings;
+	}
+
+	/**
+	 * Purges the indexes of the given types, then indexes all their entities, and waits for the end.
+	 *
+	 * @return the monitor of the run, to read its figures from
+	 */
+	public ProgressMonitor run(SessionFactory sessionFactory, Class<?>... types) throws InterruptedException {
+		ProgressMonitor monitor = new ProgressMonitor( logInterval );
+		Search.mapping( sessionFactory ).scope( Arrays.asList( types ) ).massIndexer()
+				.threadsToLoadObjects( threadsToLoadObjects )
+				.batchSizeToLoadObjects( batchSizeToLoadObjects )
+				.idFetchSize( idFetchSize )
+				.mergeSegmentsOnFinish( mergeSegmentsOnFinish )
+				.monitor( monitor )
+				.startAndWait();
+		return monitor;
+	}
+}
@@ -0,0 +1,135 @@
+package org.hibernate.search.bugs.massindexing;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+import org.jboss.logging.Logger;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Follows a mass indexing run: counts the entities loaded and the documents built and added, and logs the indexing
+ * rate and the estimated time left at most once per interval.
+ * <p>
+ * The rate is the number of documents added to the index since the start divided by the elapsed time, and the ETA
+ * assumes the remaining documents are added at the same rate.
+ */
+public class ProgressMonitor implements MassIndexingMonitor {
+
+	private static final Logger LOG = Logger.getLogger( ProgressMonitor.class );
+
+	private final long logIntervalNanos;
+
+	private final long startNanos = System.nanoTime();
+
+	private final AtomicLong lastLogNanos = new AtomicLong( startNanos );
+
+	private final AtomicLong totalCount = new AtomicLong();
+
+	private final AtomicLong entitiesLoaded = new AtomicLong();
+
+	private final AtomicLong documentsBuilt = new AtomicLong();
+
+	private final AtomicLong documentsAdded = new AtomicLong();
+
+	private volatile long endNanos;
+
+	public ProgressMonitor(Duration logInterval) {
+		this.logIntervalNanos = logInterval.toNanos();
+	}
+
+	@Override
+	public void addToTotalCount(long count) {
+		totalCount.addAndGet( count );
+	}
+
+	@Override
+	public void entitiesLoaded(long size) {
+		entitiesLoaded.addAndGet( size );
+	}
+
+	@Override
+	public void documentsBuilt(long number) {
+		documentsBuilt.addAndGet( number );
+	}
+
+	@Override
+	public void documentsAdded(long increment) {
+		documentsAdded.addAndGet( increment );
+		long now = System.nanoTime();
+		long last = lastLogNanos.get();
+		// Only the thread that moves the mark logs, the others go on indexing
+		if ( now - last >= logIntervalNanos && lastLogNanos.compareAndSet( last, now ) ) {
+			LOG.infof( "Mass indexing: %s", this );
+		}
+	}
+
+	@Override
+	public void indexingCompleted() {
+		endNanos = System.nanoTime();
+		LOG.infof( "Mass indexing completed: %s", this );
+	}
+
+	public boolean isCompleted() {
+		return endNanos != 0;
+	}
+
+	public long getTotalCount() {
+		return totalCount.get();
+	}
+
+	public long getEntitiesLoaded() {
+		return entitiesLoaded.get();
+	}
+
+	public long getDocumentsBuilt() {
+		return documentsBuilt.get();
+	}
+
+	public long getDocumentsAdded() {
+		return documentsAdded.get();
+	}
+
+	public Duration getElapsed() {
+		long end = isCompleted() ? endNanos : System.nanoTime();
+		return Duration.ofNanos( end - startNanos );
+	}
+
+	/**
+	 * @return the documents added to the index per second since the start
+	 */
+	public double getEntitiesPerSecond() {
+		long elapsedNanos = getElapsed().toNanos();
+		return elapsedNanos == 0 ? 0 : documentsAdded.get() * (double) TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+	}
+
+	/**
+	 * @return the time left at the current rate, zero once completed, or {@code null} before the first document
+	 */
+	public Duration getEta() {
+		long remaining = totalCount.get() - documentsAdded.get();
+		if ( isCompleted() || remaining <= 0 ) {
+			return Duration.ZERO;
+		}
+		double rate = getEntitiesPerSecond();
+		if ( rate == 0 ) {
+			return null;
+		}
+		return Duration.ofMillis( (long) ( remaining * 1000 / rate ) );
+	}
+
+	@Override
+	public String toString() {
+		Duration eta = getEta();
+		return format( "{0}/{1} documents added ({2} loaded, {3} built) in {4} s, {5} entities/s, ETA {6}",
+				documentsAdded.get(),
+				totalCount.get(),
+				entitiesLoaded.get(),
+				documentsBuilt.get(),
+				getElapsed().getSeconds(),
+				Math.round( getEntitiesPerSecond() ),
+				eta == null ? "unknown" : eta.getSeconds() + " s" );
+	}
+}
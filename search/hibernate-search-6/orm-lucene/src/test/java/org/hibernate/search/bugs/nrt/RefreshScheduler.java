@@ -0,0 +1,302 @@
+package org.hibernate.search.bugs.nrt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.search.backend.lucene.LuceneExtension;
+import org.hibernate.search.backend.lucene.scope.LuceneIndexScope;
+import org.hibernate.search.engine.backend.work.execution.DocumentCommitStrategy;
+import org.hibernate.search.engine.backend.work.execution.DocumentRefreshStrategy;
+import org.hibernate.search.engine.reporting.EntityIndexingFailureContext;
+import org.hibernate.search.engine.reporting.FailureHandler;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationConfigurationContext;
+import org.hibernate.search.mapper.orm.automaticindexing.session.AutomaticIndexingSynchronizationStrategy;
+import org.hibernate.search.mapper.orm.scope.SearchScope;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlanExecutionReport;
+import org.jboss.logging.Logger;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Near-real-time searchers refreshed on a schedule instead of after every transaction.
+ * <p>
+ * With the {@code sync} strategy, each transaction commit forces a refresh, and the next search opens a new searcher:
+ * under a steady stream of writes, most searches pay for opening one.  Here a transaction waits for its works to be
+ * committed, like with {@code write-sync}, but not refreshed: a background thread refreshes the searchers once per
+ * {@link #refreshInterval refresh interval} if there were writes since the last time, opens them and runs the
+ * {@link #warmer warmers} on their new segments, all before a search needs them.  A search that must see the writes
+ * committed before it calls {@link #refreshIfStale()} first, which refreshes right away if needed.
+ * <p>
+ * Enable it with the {@link #settings()}, which register this instance as the synchronization strategy, then
+ * {@link #start} it once the session factory is built.  The refresh counts and the time spent opening and warming the
+ * searchers are kept for the {@link #report()}.
+ */
+public class RefreshScheduler implements AutomaticIndexingSynchronizationStrategy, AutoCloseable {
+
+	private static final Logger LOG = Logger.getLogger( RefreshScheduler.class );
+
+	private static final String SYNCHRONIZATION_STRATEGY = "hibernate.search.automatic_indexing.synchronization.strategy";
+
+	private static final String REFRESH_INTERVAL = "hibernate.search.backend.io.refresh_interval";
+
+	private Duration refreshInterval = Duration.ofSeconds( 1 );
+
+	private final List<SearcherWarmer> warmers = new ArrayList<>();
+
+	private ScheduledExecutorService executor;
+
+	private SearchScope<?> scope;
+
+	private long startNanos;
+
+	private final AtomicLong writes = new AtomicLong();
+
+	private volatile long refreshedWrites;
+
+	private final Set<IndexReader.CacheKey> warmedSegments = Collections.newSetFromMap( new WeakHashMap<>() );
+
+	private final AtomicLong scheduledRefreshes = new AtomicLong();
+
+	private final AtomicLong onDemandRefreshes = new AtomicLong();
+
+	private final AtomicLong skippedRefreshes = new AtomicLong();
+
+	private final AtomicLong totalOpenNanos = new AtomicLong();
+
+	private final AtomicLong maxOpenNanos = new AtomicLong();
+
+	private final AtomicLong totalWarmNanos = new AtomicLong();
+
+	private final AtomicLong warmedSegmentCount = new AtomicLong();
+
+	/**
+	 * @param refreshInterval how long the writes may stay invisible to the searches that do not ask for them
+	 */
+	public RefreshScheduler refreshInterval(Duration refreshInterval) {
+		this.refreshInterval = refreshInterval;
+		return this;
+	}
+
+	/**
+	 * @param warmer run on each new segment of a refreshed searcher, before the searches get it
+	 */
+	public RefreshScheduler warmer(SearcherWarmer warmer) {
+		warmers.add( warmer );
+		return this;
+	}
+
+	/**
+	 * @return the settings enabling the scheduled refreshes, to add to the configuration of the session factory
+	 */
+	public Map<String, Object> settings() {
+		Map<String, Object> settings = new HashMap<>();
+		settings.put( SYNCHRONIZATION_STRATEGY, this );
+		// Searchers older than that refresh on the next search, should the scheduler fall behind
+		settings.put( REFRESH_INTERVAL, 2 * refreshInterval.toMillis() );
+		return settings;
+	}
+
+	@Override
+	public void apply(AutomaticIndexingSynchronizationConfigurationContext context) {
+		context.documentCommitStrategy( DocumentCommitStrategy.FORCE );
+		context.documentRefreshStrategy( DocumentRefreshStrategy.NONE );
+		FailureHandler failureHandler = context.failureHandler();
+		context.indexingFutureHandler( future -> {
+			try {
+				SearchIndexingPlanExecutionReport report = future.join();
+				report.throwable().ifPresent( throwable -> handleFailure( failureHandler, throwable, report ) );
+			}
+			catch (CompletionException e) {
+				handleFailure( failureHandler, e.getCause(), null );
+			}
+			finally {
+				writes.incrementAndGet();
+			}
+		} );
+	}
+
+	private static void handleFailure(FailureHandler failureHandler, Throwable throwable,
+			SearchIndexingPlanExecutionReport report) {
+		EntityIndexingFailureContext.Builder failure = EntityIndexingFailureContext.builder();
+		failure.throwable( throwable );
+		failure.failingOperation( "Automatic indexing with scheduled refreshes" );
+		if ( report != null ) {
+			report.failingEntities().forEach( failure::entityReference );
+		}
+		failureHandler.handle( failure.build() );
+	}
+
+	/**
+	 * Starts refreshing the indexes of the given entity types, once per refresh interval.
+	 */
+	public void start(SessionFactory sessionFactory, Class<?>... types) {
+		scope = Search.mapping( sessionFactory ).scope( Arrays.asList( types ) );
+		startNanos = System.nanoTime();
+		executor = Executors.newSingleThreadScheduledExecutor( task -> {
+			Thread thread = new Thread( task, "refresh-scheduler" );
+			thread.setDaemon( true );
+			return thread;
+		} );
+		long intervalMillis = refreshInterval.toMillis();
+		executor.scheduleWithFixedDelay( this::scheduledRefresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS );
+	}
+
+	private void scheduledRefresh() {
+		try {
+			if ( refresh() ) {
+				scheduledRefreshes.incrementAndGet();
+			}
+			else {
+				skippedRefreshes.incrementAndGet();
+			}
+		}
+		catch (RuntimeException e) {
+			// Thrown out of the task, it would cancel the next refreshes
+			LOG.error( "Scheduled refresh failed", e );
+		}
+	}
+
+	/**
+	 * Refreshes the searchers now if some writes were committed since the last refresh, so that the next searches see
+	 * them: call it before a search that must see the writes of the transactions committed before it.
+	 *
+	 * @return whether there was something to refresh
+	 */
+	public boolean refreshIfStale() {
+		if ( writes.get() == refreshedWrites ) {
+			return false;
+		}
+		if ( !refresh() ) {
+			// Refreshed by the scheduler in the meantime
+			return false;
+		}
+		onDemandRefreshes.incrementAndGet();
+		return true;
+	}
+
+	private synchronized boolean refresh() {
+		long target = writes.get();
+		if ( target == refreshedWrites ) {
+			return false;
+		}
+		long start = System.nanoTime();
+		// Only marks the searchers as stale: the next one opened is a new one
+		scope.workspace().refresh();
+		try ( IndexReader reader = scope.extension( LuceneExtension.get() ).openIndexReader() ) {
+			long opened = System.nanoTime();
+			recordMax( totalOpenNanos, maxOpenNanos, opened - start );
+			warm( reader );
+			totalWarmNanos.addAndGet( System.nanoTime() - opened );
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( "Opening a searcher failed", e );
+		}
+		refreshedWrites = target;
+		return true;
+	}
+
+	private void warm(IndexReader reader) throws IOException {
+		if ( warmers.isEmpty() ) {
+			return;
+		}
+		for ( LeafReaderContext leaf : reader.leaves() ) {
+			LeafReader segment = leaf.reader();
+			IndexReader.CacheHelper cacheHelper = segment.getCoreCacheHelper();
+			// Segments without a cache key cannot be told apart from one refresh to the other: warm them every time
+			if ( cacheHelper == null || warmedSegments.add( cacheHelper.getKey() ) ) {
+				for ( SearcherWarmer warmer : warmers ) {
+					warmer.warm( segment );
+				}
+				warmedSegmentCount.incrementAndGet();
+			}
+		}
+	}
+
+	private static void recordMax(AtomicLong total, AtomicLong max, long nanos) {
+		total.addAndGet( nanos );
+		max.accumulateAndGet( nanos, Math::max );
+	}
+
+	@Override
+	public void close() {
+		if ( executor != null ) {
+			executor.shutdownNow();
+		}
+	}
+
+	public long getScheduledRefreshes() {
+		return scheduledRefreshes.get();
+	}
+
+	public long getOnDemandRefreshes() {
+		return onDemandRefreshes.get();
+	}
+
+	/**
+	 * @return the scheduled refreshes that found no new writes, and left the searchers as they were
+	 */
+	public long getSkippedRefreshes() {
+		return skippedRefreshes.get();
+	}
+
+	/**
+	 * @return the refreshes per second since {@link #start}, scheduled and on demand, or 0 if not started
+	 */
+	public double getRefreshesPerSecond() {
+		if ( executor == null ) {
+			return 0;
+		}
+		long elapsed = System.nanoTime() - startNanos;
+		return ( scheduledRefreshes.get() + onDemandRefreshes.get() ) * (double) TimeUnit.SECONDS.toNanos( 1 ) / elapsed;
+	}
+
+	/**
+	 * @return the average time to open a refreshed searcher, without the warm-up
+	 */
+	public Duration getAverageOpenTime() {
+		long refreshes = scheduledRefreshes.get() + onDemandRefreshes.get();
+		return Duration.ofNanos( refreshes == 0 ? 0 : totalOpenNanos.get() / refreshes );
+	}
+
+	public Duration getMaxOpenTime() {
+		return Duration.ofNanos( maxOpenNanos.get() );
+	}
+
+	/**
+	 * @return the refresh counts and the time spent opening and warming the searchers
+	 */
+	public String report() {
+		long refreshes = scheduledRefreshes.get() + onDemandRefreshes.get();
+		return format( "{0} refreshes ({1} scheduled, {2} on demand, {3} skipped), {4,number,0.0} per second, "
+						+ "searcher opened in {5,number,0.00} ms on average (max {6,number,0.00} ms), "
+						+ "{7} new segments warmed in {8,number,0.00} ms on average per refresh",
+				refreshes,
+				scheduledRefreshes.get(),
+				onDemandRefreshes.get(),
+				skippedRefreshes.get(),
+				getRefreshesPerSecond(),
+				getAverageOpenTime().toNanos() / 1e6,
+				getMaxOpenTime().toNanos() / 1e6,
+				warmedSegmentCount.get(),
+				refreshes == 0 ? 0 : totalWarmNanos.get() / 1e6 / refreshes );
+	}
+}
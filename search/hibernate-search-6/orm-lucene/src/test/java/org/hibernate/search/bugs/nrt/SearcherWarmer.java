@@ -0,0 +1,42 @@
+package org.hibernate.search.bugs.nrt;
+
+import java.io.IOException;
+
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
+
+/**
+ * Reads part of a new segment before the searches do, so that the first search on a refreshed searcher does not pay
+ * for loading it.  The {@link RefreshScheduler} calls its warmers once per segment: the segments that a refresh keeps
+ * from the previous searcher are warm already.
+ */
+@FunctionalInterface
+public interface SearcherWarmer {
+
+	void warm(LeafReader segment) throws IOException;
+
+	/**
+	 * @return a warmer reading the whole terms dictionary and the norms of the given field, what a full-text match on
+	 * that field reads first
+	 */
+	static SearcherWarmer termsAndNorms(String field) {
+		return segment -> {
+			Terms terms = segment.terms( field );
+			if ( terms != null ) {
+				TermsEnum termsEnum = terms.iterator();
+				while ( termsEnum.next() != null ) {
+					termsEnum.docFreq();
+				}
+			}
+			NumericDocValues norms = segment.getNormValues( field );
+			if ( norms != null ) {
+				while ( norms.nextDoc() != DocIdSetIterator.NO_MORE_DOCS ) {
+					norms.longValue();
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,70 @@
+package org.hibernate.search.bugs.sharding;
+
+import org.hibernate.search.mapper.pojo.bridge.RoutingBridge;
+import org.hibernate.search.mapper.pojo.bridge.binding.RoutingBindingContext;
+import org.hibernate.search.mapper.pojo.bridge.mapping.programmatic.RoutingBinder;
+import org.hibernate.search.mapper.pojo.bridge.runtime.RoutingBridgeRouteContext;
+import org.hibernate.search.mapper.pojo.route.DocumentRoutes;
+
+/**
+ * Sends each document to a shard from the hash of its identifier: its routing key is the identifier of that shard,
+ * as declared to the {@code explicit} sharding strategy, so that a search routed with the key of a shard goes to that
+ * shard only, see {@link ShardedSearch}.
+ * <p>
+ * Without routing keys, a search always goes through all the shards: a routed search only matches the documents
+ * indexed with one of its routing keys.
+ */
+public class HashRoutingBinder implements RoutingBinder {
+
+	private final int numberOfShards;
+
+	public HashRoutingBinder(int numberOfShards) {
+		if ( numberOfShards < 1 ) {
+			throw new IllegalArgumentException( "numberOfShards must be positive, was " + numberOfShards );
+		}
+		this.numberOfShards = numberOfShards;
+	}
+
+	@Override
+	public void bind(RoutingBindingContext context) {
+		// The identifier is all the route depends on
+		context.dependencies().useRootOnly();
+		context.bridge( Object.class, new Bridge( numberOfShards ) );
+	}
+
+	/**
+	 * @return the identifier of the shard, and routing key, of the documents with the given identifier
+	 */
+	public static String routingKey(Object identifier, int numberOfShards) {
+		return shardIdentifier( Math.floorMod( identifier.hashCode(), numberOfShards ) );
+	}
+
+	/**
+	 * @return the identifier of the shard with the given index, from 0 to the number of shards excluded
+	 */
+	public static String shardIdentifier(int shard) {
+		return String.valueOf( shard );
+	}
+
+	private static final class Bridge implements RoutingBridge<Object> {
+
+		private final int numberOfShards;
+
+		private Bridge(int numberOfShards) {
+			this.numberOfShards = numberOfShards;
+		}
+
+		@Override
+		public void route(DocumentRoutes routes, Object entityIdentifier, Object indexedEntity,
+				RoutingBridgeRouteContext context) {
+			routes.addRoute().routingKey( routingKey( entityIdentifier, numberOfShards ) );
+		}
+
+		@Override
+		public void previousRoutes(DocumentRoutes routes, Object entityIdentifier, Object indexedEntity,
+				RoutingBridgeRouteContext context) {
+			// An identifier never changes, and neither does its route
+			route( routes, entityIdentifier, indexedEntity, context );
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package org.hibernate.search.bugs.sharding;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.DocumentId;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+
+/**
+ * The same fields as {@code YourAnnotatedEntity}, in an index split in shards: not {@code @Indexed}, as
+ * {@link ShardedSearch#settings(Class, int)} maps it as indexed, with the {@link HashRoutingBinder} of the number of
+ * shards of the test.
+ */
+@Entity
+public class ShardedEntity {
+
+	@Id
+	@DocumentId
+	private Long id;
+
+	@FullTextField(analyzer = "nameAnalyzer")
+	private String name;
+
+	protected ShardedEntity() {
+	}
+
+	public ShardedEntity(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+}
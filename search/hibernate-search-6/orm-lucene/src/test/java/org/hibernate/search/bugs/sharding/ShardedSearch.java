@@ -0,0 +1,150 @@
+package org.hibernate.search.bugs.sharding;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.mapping.HibernateOrmSearchMappingConfigurer;
+
+/**
+ * Searches an index split in shards one shard per thread, then merges the best hits of each shard into the best hits
+ * overall.
+ * <p>
+ * A search without routing also goes through every shard, but one after the other, in the calling thread.  Here each
+ * shard is searched on its own, routed with its identifier, which the {@link HashRoutingBinder} gives as routing key to
+ * the documents of that shard, for its {@code limit} best hits by score: the best {@code limit} of all those are the
+ * best overall.  The scores of each shard come from the term statistics of that shard, which differ a little from
+ * those of a single index when the shards are small or the terms rare.
+ * <pre>{@code
+ * // ... build the session factory with ShardedSearch.settings( ShardedEntity.class, 8 ) ...
+ * try ( ShardedSearch shardedSearch = new ShardedSearch( sessionFactory, 8 ) ) {
+ *     List<ShardedEntity> hits = shardedSearch.fetchHits( session, ShardedEntity.class,
+ *             f -> f.match().field( "name" ).matching( "smith" ), 20 );
+ * }
+ * }</pre>
+ */
+public class ShardedSearch implements AutoCloseable {
+
+	private final SessionFactory sessionFactory;
+
+	private final List<String> shardIdentifiers;
+
+	private final ExecutorService executor;
+
+	public ShardedSearch(SessionFactory sessionFactory, int numberOfShards) {
+		this.sessionFactory = sessionFactory;
+		this.shardIdentifiers = shardIdentifiers( numberOfShards );
+		AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool( numberOfShards, task -> {
+			Thread thread = new Thread( task, "sharded-search-" + threads.incrementAndGet() );
+			thread.setDaemon( true );
+			return thread;
+		} );
+	}
+
+	/**
+	 * @return the settings mapping the given entity type as indexed, in an index split in shards by the
+	 * {@link HashRoutingBinder}, to add to the configuration of the session factory
+	 */
+	public static Map<String, Object> settings(Class<?> type, int numberOfShards) {
+		Map<String, Object> settings = new HashMap<>();
+		String index = "hibernate.search.backend.indexes." + type.getSimpleName();
+		// Each routing key is the identifier of a shard
+		settings.put( index + ".sharding.strategy", "explicit" );
+		settings.put( index + ".sharding.shard_identifiers", String.join( ",", shardIdentifiers( numberOfShards ) ) );
+		settings.put( "hibernate.search.mapping.configurer", (HibernateOrmSearchMappingConfigurer) context -> context
+				.programmaticMapping().type( type ).indexed()
+				.routingBinder( new HashRoutingBinder( numberOfShards ) ) );
+		return settings;
+	}
+
+	/**
+	 * @return the {@code limit} best hits of the predicate over all the shards, by decreasing score
+	 */
+	public <T> List<T> fetchHits(Session session, Class<T> type,
+			Function<? super SearchPredicateFactory, ? extends PredicateFinalStep> predicate, int limit) {
+		List<Future<List<ScoredId>>> shardHits = new ArrayList<>( shardIdentifiers.size() );
+		for ( String shardIdentifier : shardIdentifiers ) {
+			shardHits.add( executor.submit( () -> fetchShardHits( type, predicate, shardIdentifier, limit ) ) );
+		}
+		List<ScoredId> hits = new ArrayList<>();
+		for ( Future<List<ScoredId>> future : shardHits ) {
+			hits.addAll( join( future ) );
+		}
+		List<Serializable> ids = hits.stream()
+				.sorted( Comparator.comparingDouble( ( ScoredId hit ) -> hit.score ).reversed() )
+				.limit( limit )
+				.map( hit -> (Serializable) hit.id )
+				.collect( Collectors.toList() );
+		// In the order of the ids, without the entities deleted since they were indexed
+		return session.byMultipleIds( type ).multiLoad( ids ).stream()
+				.filter( Objects::nonNull )
+				.collect( Collectors.toList() );
+	}
+
+	private List<ScoredId> fetchShardHits(Class<?> type,
+			Function<? super SearchPredicateFactory, ? extends PredicateFinalStep> predicate, String shardIdentifier,
+			int limit) {
+		// A session of its own: sessions are not thread-safe, and the projections load nothing from it anyway
+		try ( Session session = sessionFactory.openSession() ) {
+			return Search.session( session ).search( type )
+					.select( f -> f.composite( ScoredId::new, f.score(), f.id() ) )
+					.where( predicate )
+					.routing( shardIdentifier )
+					.fetchHits( limit );
+		}
+	}
+
+	private static <R> R join(Future<R> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( "Interrupted while waiting for a shard", e );
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException( "Searching a shard failed", e.getCause() );
+		}
+	}
+
+	private static List<String> shardIdentifiers(int numberOfShards) {
+		return IntStream.range( 0, numberOfShards )
+				.mapToObj( HashRoutingBinder::shardIdentifier )
+				.collect( Collectors.toList() );
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static final class ScoredId {
+
+		private final float score;
+
+		private final Object id;
+
+		private ScoredId(float score, Object id) {
+			this.score = score;
+			this.id = id;
+		}
+	}
+}
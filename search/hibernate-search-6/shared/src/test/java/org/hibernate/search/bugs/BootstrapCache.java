@@ -0,0 +1,124 @@
+package org.hibernate.search.bugs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.jboss.logging.Logger;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Keeps the session factories bootstrapped by {@link SearchTestBase} open for the whole JVM, one per set of
+ * annotated classes, so that the metadata, the factory and the Search mapping are built once instead of before every
+ * test method.
+ * <p>
+ * Disabled by default, as a test relying on a fresh factory would see the state left by the previous ones; enable it
+ * with the {@code hibernate.bootstrap.cache} system property, e.g. {@code mvn verify -Dhibernate.bootstrap.cache=true}.
+ * The factories are closed when the JVM exits, after logging how much bootstrap time the cache saved.
+ * <p>
+ * The single copy for all the Search 6 templates: each of them adds this directory to its test sources.
+ */
+public final class BootstrapCache {
+
+	public static final String ENABLED = "hibernate.bootstrap.cache";
+
+	private static final Logger LOG = Logger.getLogger( BootstrapCache.class );
+
+	private static final Map<Object, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+	private static final AtomicBoolean SHUTDOWN_HOOK_ADDED = new AtomicBoolean();
+
+	private BootstrapCache() {
+	}
+
+	public static boolean isEnabled() {
+		return Boolean.getBoolean( ENABLED );
+	}
+
+	/**
+	 * Builds a session factory, or returns the factory already built for the same {@code configuration}: anything
+	 * with a meaningful {@code equals}, such as the list of annotated classes.
+	 */
+	public static SessionFactory sessionFactory(Object configuration, Supplier<SessionFactory> bootstrap) {
+		if ( !isEnabled() ) {
+			return bootstrap.get();
+		}
+		if ( SHUTDOWN_HOOK_ADDED.compareAndSet( false, true ) ) {
+			Runtime.getRuntime().addShutdownHook( new Thread( BootstrapCache::closeAll, "bootstrap-cache-shutdown" ) );
+		}
+		Entry entry = ENTRIES.computeIfAbsent( configuration, key -> new Entry() );
+		synchronized ( entry ) {
+			if ( entry.factory != null && entry.factory.isOpen() ) {
+				entry.reuses.incrementAndGet();
+				return entry.factory;
+			}
+			long start = System.nanoTime();
+			entry.factory = bootstrap.get();
+			entry.buildNanos.addAndGet( System.nanoTime() - start );
+			entry.builds.incrementAndGet();
+			return entry.factory;
+		}
+	}
+
+	/**
+	 * @return whether the factory is kept open by the cache, and must not be closed by the test using it
+	 */
+	public static boolean isCached(SessionFactory sessionFactory) {
+		for ( Entry entry : ENTRIES.values() ) {
+			if ( entry.factory == sessionFactory ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return how many factories were built and reused, and the bootstrap time saved by reusing them
+	 */
+	public static String report() {
+		long builds = 0;
+		long buildNanos = 0;
+		long reuses = 0;
+		long savedNanos = 0;
+		for ( Entry entry : ENTRIES.values() ) {
+			builds += entry.builds.get();
+			buildNanos += entry.buildNanos.get();
+			reuses += entry.reuses.get();
+			savedNanos += entry.reuses.get() * entry.buildNanos.get() / Math.max( 1, entry.builds.get() );
+		}
+		return format( "{0} factories built in {1} ms, reused {2} times, saving about {3} ms of bootstrap",
+				builds,
+				TimeUnit.NANOSECONDS.toMillis( buildNanos ),
+				reuses,
+				TimeUnit.NANOSECONDS.toMillis( savedNanos ) );
+	}
+
+	private static void closeAll() {
+		LOG.infof( "Bootstrap cache: %s", report() );
+		List<Entry> entries = new ArrayList<>( ENTRIES.values() );
+		ENTRIES.clear();
+		for ( Entry entry : entries ) {
+			if ( entry.factory != null && entry.factory.isOpen() ) {
+				entry.factory.close();
+			}
+		}
+	}
+
+	private static final class Entry {
+
+		private volatile SessionFactory factory;
+
+		private final AtomicLong builds = new AtomicLong();
+
+		private final AtomicLong buildNanos = new AtomicLong();
+
+		private final AtomicLong reuses = new AtomicLong();
+	}
+}